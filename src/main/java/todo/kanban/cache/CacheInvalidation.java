@@ -0,0 +1,55 @@
+package todo.kanban.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.List;
+import todo.kanban.dto.TaskDTO;
+
+/**
+ * Invalidation exchanged between nodes.
+ *
+ * @param origin Node that sent it, receivers skip their own messages
+ * @param type What to invalidate
+ * @param cache Cache name for {@link Type#EVICT} and {@link Type#CLEAR}
+ * @param keyType Key type for {@link Type#EVICT}
+ * @param key Key for {@link Type#EVICT}
+ * @param tasks Changed task states for {@link Type#TASKS_CHANGED}
+ */
+public record CacheInvalidation(
+    String origin,
+    Type type,
+    String cache,
+    String keyType,
+    JsonNode key,
+    List<TaskDTO.Response> tasks) {
+
+  public enum Type {
+    /** Drop one key of one cache */
+    EVICT,
+    /** Drop every entry of one cache */
+    CLEAR,
+    /** Drop the given tasks and every listing that may contain them */
+    TASKS_CHANGED,
+    /** Local only: invalidations may have been missed, drop everything */
+    RESYNC
+  }
+
+  public static CacheInvalidation evict(String cache, String keyType, JsonNode key) {
+    return new CacheInvalidation(null, Type.EVICT, cache, keyType, key, null);
+  }
+
+  public static CacheInvalidation clear(String cache) {
+    return new CacheInvalidation(null, Type.CLEAR, cache, null, null, null);
+  }
+
+  public static CacheInvalidation tasksChanged(List<TaskDTO.Response> tasks) {
+    return new CacheInvalidation(null, Type.TASKS_CHANGED, null, null, null, tasks);
+  }
+
+  public static CacheInvalidation resync() {
+    return new CacheInvalidation(null, Type.RESYNC, null, null, null, null);
+  }
+
+  CacheInvalidation withOrigin(String origin) {
+    return new CacheInvalidation(origin, type, cache, keyType, key, tasks);
+  }
+}
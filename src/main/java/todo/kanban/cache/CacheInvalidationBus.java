@@ -0,0 +1,177 @@
+package todo.kanban.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import todo.kanban.cluster.PgNotificationListener;
+import todo.kanban.dto.TaskDTO;
+
+/**
+ * Broadcasts cache invalidations to the other nodes over the {@code kanban_cache} notification
+ * channel and hands the ones received from them to local subscribers.
+ */
+@Component
+@ConditionalOnProperty(name = "kanban.cluster.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationBus {
+
+  static final String CHANNEL = "kanban_cache";
+
+  // NOTIFY payloads are capped at 8000 bytes, leave room for the envelope
+  private static final int MAX_NOTIFY_BYTES = 7500;
+
+  private static final Map<String, Class<?>> KEY_TYPES =
+      Map.of(
+          Long.class.getName(), Long.class,
+          Integer.class.getName(), Integer.class,
+          String.class.getName(), String.class,
+          TaskQueryKey.class.getName(), TaskQueryKey.class);
+
+  private final PgNotificationListener notificationListener;
+  private final ObjectMapper objectMapper;
+  private final List<Consumer<CacheInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+  @PostConstruct
+  public void init() {
+    notificationListener.subscribe(CHANNEL, this::receive);
+    notificationListener.addReconnectListener(() -> deliver(CacheInvalidation.resync()));
+  }
+
+  public void subscribe(Consumer<CacheInvalidation> subscriber) {
+    subscribers.add(subscriber);
+  }
+
+  /**
+   * Tell the other nodes to evict a key
+   *
+   * @param cache Cache name
+   * @param key Cache key, must be one of the supported key types
+   */
+  public void publishEvict(String cache, Object key) {
+    if (!KEY_TYPES.containsKey(key.getClass().getName())) {
+      log.warn("Key type {} cannot be sent to peers, clearing {}", key.getClass(), cache);
+      publish(CacheInvalidation.clear(cache));
+      return;
+    }
+    publish(
+        CacheInvalidation.evict(cache, key.getClass().getName(), objectMapper.valueToTree(key)));
+  }
+
+  public void publishClear(String cache) {
+    publish(CacheInvalidation.clear(cache));
+  }
+
+  /**
+   * Tell the other nodes which task states a write touched. States are split over as many messages
+   * as their size in bytes requires; a state too large for any message makes the peers clear their
+   * task caches instead.
+   *
+   * @param tasks Task states before and after the write
+   */
+  public void publishTasksChanged(List<TaskDTO.Response> tasks) {
+    List<TaskDTO.Response> chunk = new ArrayList<>();
+    int chunkBytes = 0;
+    boolean cleared = false;
+    for (TaskDTO.Response task : tasks) {
+      TaskDTO.Response state = slim(task);
+      // plus the separating comma
+      int bytes = utf8Length(state) + 1;
+      if (bytes > MAX_NOTIFY_BYTES) {
+        if (!cleared) {
+          log.warn("Task {} is too large to announce to peers, clearing task caches", task.getId());
+          publishClear(TaskQueryCache.TASKS_CACHE_NAME);
+          publishClear(TaskQueryCache.CACHE_NAME);
+          cleared = true;
+        }
+        continue;
+      }
+      if (chunkBytes + bytes > MAX_NOTIFY_BYTES) {
+        publish(CacheInvalidation.tasksChanged(chunk));
+        chunk = new ArrayList<>();
+        chunkBytes = 0;
+      }
+      chunk.add(state);
+      chunkBytes += bytes;
+    }
+    if (!chunk.isEmpty()) {
+      publish(CacheInvalidation.tasksChanged(chunk));
+    }
+  }
+
+  /**
+   * Decode the key of an {@link CacheInvalidation.Type#EVICT} message
+   *
+   * @param invalidation Received invalidation
+   * @return Key as the type it was cached under
+   */
+  public Object decodeKey(CacheInvalidation invalidation) {
+    Class<?> keyType = KEY_TYPES.get(invalidation.keyType());
+    if (keyType == null) {
+      throw new IllegalArgumentException("Unsupported cache key type: " + invalidation.keyType());
+    }
+    return objectMapper.convertValue(invalidation.key(), keyType);
+  }
+
+  private void publish(CacheInvalidation invalidation) {
+    try {
+      String payload =
+          objectMapper.writeValueAsString(
+              invalidation.withOrigin(notificationListener.getNodeId()));
+      notificationListener.notify(CHANNEL, payload);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize cache invalidation", e);
+    }
+  }
+
+  private int utf8Length(Object value) {
+    try {
+      return objectMapper.writeValueAsString(value).getBytes(StandardCharsets.UTF_8).length;
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize cache invalidation", e);
+    }
+  }
+
+  private void receive(String payload) {
+    CacheInvalidation invalidation;
+    try {
+      invalidation = objectMapper.readValue(payload, CacheInvalidation.class);
+    } catch (JsonProcessingException e) {
+      log.error("Discarding malformed cache invalidation: {}", payload, e);
+      return;
+    }
+
+    if (notificationListener.getNodeId().equals(invalidation.origin())) {
+      return;
+    }
+    log.debug(
+        "Received cache invalidation from {}: {}", invalidation.origin(), invalidation.type());
+    deliver(invalidation);
+  }
+
+  private void deliver(CacheInvalidation invalidation) {
+    subscribers.forEach(subscriber -> subscriber.accept(invalidation));
+  }
+
+  // Only the fields TaskQueryKey.matches looks at
+  private static TaskDTO.Response slim(TaskDTO.Response task) {
+    return TaskDTO.Response.builder()
+        .id(task.getId())
+        .title(task.getTitle())
+        .status(task.getStatus())
+        .priority(task.getPriority())
+        .createdBy(task.getCreatedBy())
+        .assignedTo(task.getAssignedTo())
+        .build();
+  }
+}
@@ -0,0 +1,52 @@
+package todo.kanban.cache;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+
+/**
+ * Caffeine cache whose evictions and clears are replayed on the other nodes. Puts stay local: a
+ * fill on this node does not make anyone else's entry stale, and writes that do announce
+ * themselves through {@link TaskQueryCache}.
+ */
+public class ClusterCache extends CaffeineCache {
+
+  private final CacheInvalidationBus invalidationBus;
+
+  public ClusterCache(CaffeineCache local, CacheInvalidationBus invalidationBus) {
+    super(local.getName(), local.getNativeCache(), local.isAllowNullValues());
+    this.invalidationBus = invalidationBus;
+  }
+
+  @Override
+  public void evict(Object key) {
+    super.evict(key);
+    invalidationBus.publishEvict(getName(), key);
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    boolean present = super.evictIfPresent(key);
+    invalidationBus.publishEvict(getName(), key);
+    return present;
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    invalidationBus.publishClear(getName());
+  }
+
+  @Override
+  public boolean invalidate() {
+    boolean notEmpty = super.invalidate();
+    invalidationBus.publishClear(getName());
+    return notEmpty;
+  }
+
+  void evictLocally(Object key) {
+    super.evict(key);
+  }
+
+  void clearLocally() {
+    super.clear();
+  }
+}
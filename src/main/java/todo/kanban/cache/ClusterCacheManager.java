@@ -0,0 +1,70 @@
+package todo.kanban.cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+/**
+ * Two-tier cache manager: every node keeps its Caffeine caches as L1, and evictions are broadcast
+ * through PostgreSQL so an update on one replica does not leave stale entries on the others until
+ * they expire.
+ */
+@Slf4j
+public class ClusterCacheManager implements CacheManager {
+
+  private final CaffeineCacheManager local;
+  private final CacheInvalidationBus invalidationBus;
+  private final Map<String, ClusterCache> caches = new ConcurrentHashMap<>();
+
+  public ClusterCacheManager(CaffeineCacheManager local, CacheInvalidationBus invalidationBus) {
+    this.local = local;
+    this.invalidationBus = invalidationBus;
+    invalidationBus.subscribe(this::onPeerInvalidation);
+  }
+
+  @Override
+  public Cache getCache(String name) {
+    return caches.computeIfAbsent(
+        name,
+        n -> {
+          Cache cache = local.getCache(n);
+          return cache instanceof CaffeineCache caffeine
+              ? new ClusterCache(caffeine, invalidationBus)
+              : null;
+        });
+  }
+
+  @Override
+  public Collection<String> getCacheNames() {
+    return local.getCacheNames();
+  }
+
+  private void onPeerInvalidation(CacheInvalidation invalidation) {
+    switch (invalidation.type()) {
+      case EVICT -> {
+        ClusterCache cache = (ClusterCache) getCache(invalidation.cache());
+        if (cache != null) {
+          cache.evictLocally(invalidationBus.decodeKey(invalidation));
+        }
+      }
+      case CLEAR -> {
+        ClusterCache cache = (ClusterCache) getCache(invalidation.cache());
+        if (cache != null) {
+          cache.clearLocally();
+        }
+      }
+      case RESYNC -> {
+        log.info("Clearing local caches after missed cluster invalidations");
+        getCacheNames().forEach(name -> ((ClusterCache) getCache(name)).clearLocally());
+      }
+      default -> {
+        // TASKS_CHANGED is handled by TaskQueryCache
+      }
+    }
+  }
+}
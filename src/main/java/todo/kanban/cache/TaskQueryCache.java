@@ -0,0 +1,133 @@
+package todo.kanban.cache;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import todo.kanban.dto.TaskDTO;
+
+/** Targeted invalidation of the task listing cache, keyed by {@link TaskQueryKey}. */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TaskQueryCache {
+
+  public static final String CACHE_NAME = "tasksList";
+  public static final String TASKS_CACHE_NAME = "tasks";
+
+  private final CacheManager cacheManager;
+  private final ObjectProvider<CacheInvalidationBus> invalidationBus;
+
+  @PostConstruct
+  public void init() {
+    invalidationBus.ifAvailable(bus -> bus.subscribe(this::onPeerInvalidation));
+  }
+
+  /**
+   * Evict every cached listing whose filter matches any of the given task states. Pass both the
+   * state before and after a write so pages the task left and pages it joined are dropped.
+   *
+   * <p>Inside a transaction the eviction runs after commit; evicting earlier would let a concurrent
+   * reader re-populate the entry from the not yet committed data. Other nodes are notified as part
+   * of the transaction and additionally drop their copy of the tasks themselves.
+   *
+   * @param states Task states touched by the write, null entries are ignored
+   */
+  public void evictMatching(TaskDTO.Response... states) {
+    List<TaskDTO.Response> changed = Arrays.stream(states).filter(Objects::nonNull).toList();
+    if (changed.isEmpty()) {
+      return;
+    }
+
+    invalidationBus.ifAvailable(bus -> bus.publishTasksChanged(changed));
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              evict(changed);
+            }
+          });
+    } else {
+      evict(changed);
+    }
+  }
+
+  /**
+   * Drop single-task entries for writes that bypass the {@code tasks} cache annotations, such as
+   * batches. Runs after commit inside a transaction. Other nodes drop theirs on the broadcast of
+   * {@link #evictMatching}, so this only evicts locally.
+   *
+   * @param ids Ids of the updated or deleted tasks
+   */
+  public void evictTasks(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return;
+    }
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              evictTasksLocally(ids);
+            }
+          });
+    } else {
+      evictTasksLocally(ids);
+    }
+  }
+
+  private void evictTasksLocally(Collection<Long> ids) {
+    Cache tasks = cacheManager.getCache(TASKS_CACHE_NAME);
+    if (tasks instanceof ClusterCache clusterTasks) {
+      ids.forEach(clusterTasks::evictLocally);
+    } else if (tasks != null) {
+      ids.forEach(tasks::evict);
+    }
+  }
+
+  private void onPeerInvalidation(CacheInvalidation invalidation) {
+    if (invalidation.type() != CacheInvalidation.Type.TASKS_CHANGED) {
+      return;
+    }
+
+    // Evict locally only, re-broadcasting would bounce the message between nodes
+    if (cacheManager.getCache(TASKS_CACHE_NAME) instanceof ClusterCache tasks) {
+      invalidation.tasks().forEach(task -> tasks.evictLocally(task.getId()));
+    }
+    evict(invalidation.tasks());
+  }
+
+  private void evict(List<TaskDTO.Response> changed) {
+    Cache cache = cacheManager.getCache(CACHE_NAME);
+    if (cache == null) {
+      return;
+    }
+
+    if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> entries) {
+      int before = entries.asMap().size();
+      entries
+          .asMap()
+          .keySet()
+          .removeIf(key -> !(key instanceof TaskQueryKey query) || affects(query, changed));
+      log.debug("Evicted {} of {} task listings", before - entries.asMap().size(), before);
+    } else {
+      cache.clear();
+    }
+  }
+
+  private static boolean affects(TaskQueryKey query, List<TaskDTO.Response> changed) {
+    return changed.stream().anyMatch(query::matches);
+  }
+}
@@ -0,0 +1,107 @@
+package todo.kanban.cache;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import todo.kanban.dto.TaskDTO;
+import todo.kanban.model.TaskPriority;
+import todo.kanban.model.TaskStatus;
+
+/**
+ * Key of a cached task listing. It carries the complete filter together with the sort and page, so
+ * two different queries can never share an entry, and it knows which tasks its result could contain
+ * so writes only evict the listings they can affect.
+ *
+ * <p>A {@code null} filter value means "any". An {@code assignedTo} of {@code 0} means "unassigned",
+ * mirroring {@code TaskService.searchTasks}.
+ */
+public record TaskQueryKey(
+    String title,
+    TaskStatus status,
+    TaskPriority priority,
+    Long assignedTo,
+    Long createdBy,
+    String sort,
+    int page,
+    int size) {
+
+  private static final Sort ALL_TASKS_SORT = Sort.by(Sort.Direction.DESC, "createdAt");
+
+  public static TaskQueryKey all(Pageable pageable) {
+    // getAllTasks always sorts by creation date, whatever the caller asked for
+    return new TaskQueryKey(
+        null,
+        null,
+        null,
+        null,
+        null,
+        ALL_TASKS_SORT.toString(),
+        pageable.getPageNumber(),
+        pageable.getPageSize());
+  }
+
+  public static TaskQueryKey search(
+      String title, TaskStatus status, TaskPriority priority, Long assignedTo, Pageable pageable) {
+    return of(title, status, priority, assignedTo, null, pageable);
+  }
+
+  public static TaskQueryKey assignedTo(Long userId, Pageable pageable) {
+    return of(null, null, null, userId, null, pageable);
+  }
+
+  public static TaskQueryKey createdBy(Long userId, Pageable pageable) {
+    return of(null, null, null, null, userId, pageable);
+  }
+
+  private static TaskQueryKey of(
+      String title,
+      TaskStatus status,
+      TaskPriority priority,
+      Long assignedTo,
+      Long createdBy,
+      Pageable pageable) {
+    String normalizedTitle = title == null || title.isBlank() ? null : title.toLowerCase();
+    return new TaskQueryKey(
+        normalizedTitle,
+        status,
+        priority,
+        assignedTo,
+        createdBy,
+        pageable.getSort().toString(),
+        pageable.getPageNumber(),
+        pageable.getPageSize());
+  }
+
+  /**
+   * Check whether a task in the given state passes this key's filter, i.e. whether the cached page
+   * could contain it or would have to contain it after a write.
+   *
+   * @param task Task state before or after a write
+   * @return true if the listing may be affected by the task
+   */
+  public boolean matches(TaskDTO.Response task) {
+    if (status != null && status != task.getStatus()) {
+      return false;
+    }
+
+    if (priority != null && priority != task.getPriority()) {
+      return false;
+    }
+
+    if (assignedTo != null) {
+      if (assignedTo == 0) {
+        if (task.getAssignedTo() != null) {
+          return false;
+        }
+      } else if (!assignedTo.equals(task.getAssignedTo())) {
+        return false;
+      }
+    }
+
+    if (createdBy != null && !createdBy.equals(task.getCreatedBy())) {
+      return false;
+    }
+
+    return title == null
+        || (task.getTitle() != null && task.getTitle().toLowerCase().contains(title));
+  }
+}
@@ -0,0 +1,106 @@
+package todo.kanban.cluster;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Keeps rate limit buckets in the shared PostgreSQL database so every node draws from the same
+ * tokens. Each change is a compare-and-swap on the serialized state; a lost race is retried by
+ * bucket4j against the fresh state.
+ *
+ * <p>Statements run in auto-commit outside any application transaction. Rows idle for longer than
+ * the refill period describe full buckets and are deleted, at most once per period and only when a
+ * new bucket is created, which is when the table grows.
+ */
+@Slf4j
+public class PgBucketProxyManager extends AbstractCompareAndSwapBasedProxyManager<String> {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final Duration idleTimeout;
+  private final AtomicLong lastCleanup = new AtomicLong(System.currentTimeMillis());
+
+  public PgBucketProxyManager(JdbcTemplate jdbcTemplate, Duration idleTimeout) {
+    super(ClientSideConfig.getDefault());
+    this.jdbcTemplate = jdbcTemplate;
+    this.idleTimeout = idleTimeout;
+  }
+
+  @Override
+  protected CompareAndSwapOperation beginCompareAndSwapOperation(String key) {
+    return new CompareAndSwapOperation() {
+      @Override
+      public Optional<byte[]> getStateData() {
+        List<byte[]> states =
+            jdbcTemplate.query(
+                "SELECT state FROM rate_limit_buckets WHERE id = ?",
+                (rs, rowNum) -> rs.getBytes(1),
+                key);
+        return states.stream().findFirst();
+      }
+
+      @Override
+      public boolean compareAndSwap(
+          byte[] originalData, byte[] newData, RemoteBucketState newState) {
+        if (originalData == null) {
+          removeIdleBuckets();
+          return jdbcTemplate.update(
+                  "INSERT INTO rate_limit_buckets (id, state) VALUES (?, ?)"
+                      + " ON CONFLICT (id) DO NOTHING",
+                  key,
+                  newData)
+              == 1;
+        }
+        return jdbcTemplate.update(
+                "UPDATE rate_limit_buckets SET state = ?, updated_at = now()"
+                    + " WHERE id = ? AND state = ?",
+                newData,
+                key,
+                originalData)
+            == 1;
+      }
+    };
+  }
+
+  @Override
+  protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(String key) {
+    throw new UnsupportedOperationException("JDBC has no asynchronous mode");
+  }
+
+  @Override
+  public void removeProxy(String key) {
+    jdbcTemplate.update("DELETE FROM rate_limit_buckets WHERE id = ?", key);
+  }
+
+  @Override
+  protected CompletableFuture<Void> removeAsync(String key) {
+    throw new UnsupportedOperationException("JDBC has no asynchronous mode");
+  }
+
+  @Override
+  public boolean isAsyncModeSupported() {
+    return false;
+  }
+
+  private void removeIdleBuckets() {
+    long now = System.currentTimeMillis();
+    long last = lastCleanup.get();
+    if (now - last < idleTimeout.toMillis() || !lastCleanup.compareAndSet(last, now)) {
+      return;
+    }
+    int removed =
+        jdbcTemplate.update(
+            "DELETE FROM rate_limit_buckets WHERE updated_at < now() - make_interval(secs => ?)",
+            idleTimeout.toSeconds());
+    log.debug("Removed {} idle rate limit buckets", removed);
+  }
+}
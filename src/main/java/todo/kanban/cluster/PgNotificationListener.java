@@ -0,0 +1,200 @@
+package todo.kanban.cluster;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Lets the nodes that share the PostgreSQL database signal each other through LISTEN/NOTIFY.
+ *
+ * <p>Notifications are received on one dedicated connection opened through {@link DriverManager}.
+ * It is held for the lifetime of the node, so taking it from the pool would permanently shrink the
+ * pool by one. If the connection drops, the listener reconnects and tells the reconnect listeners,
+ * because anything sent in between is lost.
+ */
+@Component
+@ConditionalOnProperty(name = "kanban.cluster.enabled", havingValue = "true")
+@Slf4j
+public class PgNotificationListener implements SmartLifecycle {
+
+  private static final int POLL_TIMEOUT_MS = 500;
+  private static final long RECONNECT_DELAY_MS = 2000;
+
+  private final String url;
+  private final String username;
+  private final String password;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  private final String nodeId = UUID.randomUUID().toString();
+  private final Map<String, List<Consumer<String>>> subscribers = new ConcurrentHashMap<>();
+  private final List<Runnable> reconnectListeners = new CopyOnWriteArrayList<>();
+
+  private volatile boolean running;
+  private volatile Connection connection;
+  private Thread listenerThread;
+
+  public PgNotificationListener(
+      Environment env, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+    this.url = env.getProperty("spring.datasource.url");
+    this.username = env.getProperty("spring.datasource.username");
+    this.password = env.getProperty("spring.datasource.password");
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * @return Identifier of this node, unique per application start
+   */
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  /**
+   * Register a subscriber for a channel. The channel name must be a plain SQL identifier.
+   *
+   * @param channel Channel to LISTEN on
+   * @param subscriber Called with the payload of every notification, including this node's own
+   */
+  public void subscribe(String channel, Consumer<String> subscriber) {
+    subscribers.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(subscriber);
+  }
+
+  /**
+   * Register a callback run after the listening connection was re-established. Notifications sent
+   * while it was down are gone, so subscribers must resynchronize.
+   *
+   * @param listener Callback
+   */
+  public void addReconnectListener(Runnable listener) {
+    reconnectListeners.add(listener);
+  }
+
+  /**
+   * Send a notification. Inside a transaction the notification is sent on the transaction's
+   * connection, so PostgreSQL delivers it on commit and drops it on rollback. Outside a transaction
+   * it is sent in a transaction of its own.
+   *
+   * @param channel Channel name
+   * @param payload Payload, at most 8000 bytes
+   */
+  public void notify(String channel, String payload) {
+    transactionTemplate.executeWithoutResult(
+        status -> jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, channel, payload));
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    listenerThread = new Thread(this::listen, "pg-notification-listener");
+    listenerThread.setDaemon(true);
+    listenerThread.start();
+    log.info("Listening for cluster notifications as node {}", nodeId);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (listenerThread != null) {
+      listenerThread.interrupt();
+    }
+    closeQuietly(connection);
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void listen() {
+    boolean reconnecting = false;
+
+    while (running) {
+      try (Connection conn = DriverManager.getConnection(url, username, password)) {
+        connection = conn;
+        PGConnection pgConnection = conn.unwrap(PGConnection.class);
+        Set<String> listening = new HashSet<>();
+
+        if (reconnecting) {
+          listenTo(conn, listening);
+          log.info("Cluster notification connection re-established");
+          reconnectListeners.forEach(Runnable::run);
+        }
+
+        while (running) {
+          listenTo(conn, listening);
+          PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+          if (notifications != null) {
+            for (PGNotification notification : notifications) {
+              dispatch(notification.getName(), notification.getParameter());
+            }
+          }
+        }
+      } catch (SQLException e) {
+        if (running) {
+          log.warn("Cluster notification connection lost: {}", e.getMessage());
+          reconnecting = true;
+          sleep(RECONNECT_DELAY_MS);
+        }
+      }
+    }
+  }
+
+  private void listenTo(Connection conn, Set<String> listening) throws SQLException {
+    for (String channel : subscribers.keySet()) {
+      if (listening.add(channel)) {
+        try (Statement statement = conn.createStatement()) {
+          statement.execute("LISTEN " + channel);
+        }
+      }
+    }
+  }
+
+  private void dispatch(String channel, String payload) {
+    for (Consumer<String> subscriber : subscribers.getOrDefault(channel, List.of())) {
+      try {
+        subscriber.accept(payload);
+      } catch (Exception e) {
+        log.error("Error handling notification on channel {}", channel, e);
+      }
+    }
+  }
+
+  private void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void closeQuietly(Connection conn) {
+    if (conn == null) {
+      return;
+    }
+    try {
+      conn.close();
+    } catch (SQLException e) {
+      log.debug("Error closing cluster notification connection", e);
+    }
+  }
+}
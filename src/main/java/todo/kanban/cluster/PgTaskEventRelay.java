@@ -0,0 +1,111 @@
+package todo.kanban.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import todo.kanban.websocket.TaskEvent;
+import todo.kanban.websocket.TaskEventRelay;
+
+/**
+ * Relays task events between the nodes over the {@code kanban_task_events} notification channel.
+ *
+ * <p>Each node sends the coalesced events of one broadcast window as a single notification. A
+ * window too large for a NOTIFY payload is written to {@code task_event_spill} and only its id is
+ * notified; the peers read it from there.
+ */
+@Component
+@ConditionalOnProperty(name = "kanban.cluster.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class PgTaskEventRelay implements TaskEventRelay {
+
+  static final String CHANNEL = "kanban_task_events";
+
+  // NOTIFY payloads are capped at 8000 bytes, leave room for the envelope
+  private static final int MAX_NOTIFY_BYTES = 7500;
+
+  private final PgNotificationListener notificationListener;
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+  private final List<Consumer<List<TaskEvent>>> subscribers = new CopyOnWriteArrayList<>();
+
+  @PostConstruct
+  public void init() {
+    notificationListener.subscribe(CHANNEL, this::receive);
+  }
+
+  @Override
+  public void subscribe(Consumer<List<TaskEvent>> subscriber) {
+    subscribers.add(subscriber);
+  }
+
+  @Override
+  public void publish(List<TaskEvent> events) {
+    // Outbox rows belong to the node that wrote them
+    List<TaskEvent> relayed = events.stream().map(event -> event.withOutboxId(null)).toList();
+    String origin = notificationListener.getNodeId();
+    try {
+      String payload = objectMapper.writeValueAsString(new Envelope(origin, null, relayed));
+      if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_NOTIFY_BYTES) {
+        payload = objectMapper.writeValueAsString(new Envelope(origin, spill(relayed), null));
+      }
+      notificationListener.notify(CHANNEL, payload);
+    } catch (JsonProcessingException | DataAccessException e) {
+      // Peers miss these events; their clients catch up on the next resync
+      log.error("Failed to relay {} task events to peers", relayed.size(), e);
+    }
+  }
+
+  private Long spill(List<TaskEvent> events) throws JsonProcessingException {
+    jdbcTemplate.update(
+        "DELETE FROM task_event_spill WHERE created_at < now() - interval '5 minutes'");
+    return jdbcTemplate.queryForObject(
+        "INSERT INTO task_event_spill (payload) VALUES (?) RETURNING id",
+        Long.class,
+        objectMapper.writeValueAsString(events));
+  }
+
+  private void receive(String payload) {
+    Envelope envelope;
+    List<TaskEvent> events;
+    try {
+      envelope = objectMapper.readValue(payload, Envelope.class);
+      if (notificationListener.getNodeId().equals(envelope.origin())) {
+        return;
+      }
+      events = envelope.spillId() == null ? envelope.events() : readSpill(envelope.spillId());
+    } catch (JsonProcessingException | DataAccessException e) {
+      log.error("Discarding task events from a peer: {}", payload, e);
+      return;
+    }
+
+    log.debug("Received {} task events from {}", events.size(), envelope.origin());
+    subscribers.forEach(subscriber -> subscriber.accept(events));
+  }
+
+  private List<TaskEvent> readSpill(long spillId) throws JsonProcessingException {
+    String spilled =
+        jdbcTemplate.queryForObject(
+            "SELECT payload FROM task_event_spill WHERE id = ?", String.class, spillId);
+    return List.of(objectMapper.readValue(spilled, TaskEvent[].class));
+  }
+
+  /**
+   * One notification on the channel
+   *
+   * @param origin Node that sent it, receivers skip their own messages
+   * @param spillId Row in {@code task_event_spill} holding the events, null if they are inline
+   * @param events Events, null if they were spilled
+   */
+  record Envelope(String origin, Long spillId, List<TaskEvent> events) {}
+}
@@ -3,22 +3,28 @@ package todo.kanban.config;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import todo.kanban.cache.CacheInvalidationBus;
+import todo.kanban.cache.ClusterCacheManager;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
   @Bean
-  public CacheManager cacheManager() {
+  public CacheManager cacheManager(ObjectProvider<CacheInvalidationBus> invalidationBus) {
     CaffeineCacheManager cacheManager = new CaffeineCacheManager();
     cacheManager.setCaffeine(caffeineCacheBuilder());
     cacheManager.setCacheNames(Arrays.asList("tasks", "tasksList", "tasksByStatus", "tasksByUser"));
-    return cacheManager;
+
+    // With clustering enabled Caffeine stays the L1 and evictions are broadcast to the other nodes
+    CacheInvalidationBus bus = invalidationBus.getIfAvailable();
+    return bus != null ? new ClusterCacheManager(cacheManager, bus) : cacheManager;
   }
 
   private Caffeine<Object, Object> caffeineCacheBuilder() {
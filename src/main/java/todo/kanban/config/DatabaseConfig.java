@@ -1,32 +1,83 @@
 package todo.kanban.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import javax.sql.DataSource;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import todo.kanban.datasource.ConnectionWaitLimiter;
+import todo.kanban.datasource.ReplicaRoutingDataSource;
 
 @Configuration
 public class DatabaseConfig {
 
   @Bean
   public DataSource dataSource(Environment env) {
-    String url = env.getProperty("spring.datasource.url");
-    String username = env.getProperty("spring.datasource.username");
-    String password = env.getProperty("spring.datasource.password");
+    HikariDataSource primary = connectToPrimary(env);
+
+    String[] replicaUrls = env.getProperty("kanban.datasource.replicas", String[].class);
+    if (replicaUrls == null || replicaUrls.length == 0) {
+      return limitWaiters(env, primary);
+    }
+
+    // Replicas share the primary's credentials and pool settings
+    Map<String, DataSource> replicas = new LinkedHashMap<>();
+    for (int i = 0; i < replicaUrls.length; i++) {
+      String name = "replica-" + (i + 1);
+      HikariDataSource replica = createPool(env, replicaUrls[i].trim());
+      replica.setPoolName(primary.getPoolName() + "-" + name);
+      replicas.put(name, limitWaiters(env, replica));
+    }
+    Binder binder = Binder.get(env);
+    Duration readYourWritesWindow =
+        binder
+            .bind("kanban.datasource.read-your-writes-window", Duration.class)
+            .orElse(Duration.ofSeconds(5));
+    // A replica can fall this far behind before the lag monitor takes it out of rotation
+    Duration catchUp =
+        binder
+            .bind("kanban.datasource.max-replica-lag", Duration.class)
+            .orElse(Duration.ofSeconds(2))
+            .plus(
+                binder
+                    .bind("kanban.datasource.lag-check-interval", Duration.class)
+                    .orElse(Duration.ofSeconds(1)));
+
+    return new LazyConnectionDataSourceProxy(
+        new ReplicaRoutingDataSource(
+            limitWaiters(env, primary), replicas, readYourWritesWindow, catchUp));
+  }
+
+  /**
+   * Virtual threads do not bound the requests in flight, so by default only a limited number may
+   * wait for a connection in that mode; with platform threads the worker pool already does.
+   */
+  private DataSource limitWaiters(Environment env, HikariDataSource pool) {
+    boolean virtualThreads =
+        env.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+    int maxWaiters =
+        env.getProperty(
+            "kanban.datasource.max-connection-waiters", Integer.class, virtualThreads ? 100 : 0);
+    return maxWaiters > 0 ? new ConnectionWaitLimiter(pool, maxWaiters) : pool;
+  }
 
-    DataSourceBuilder<?> dataSourceBuilder = DataSourceBuilder.create();
-    dataSourceBuilder.url(url);
-    dataSourceBuilder.username(username);
-    dataSourceBuilder.password(password);
+  private HikariDataSource connectToPrimary(Environment env) {
+    String url = env.getProperty("spring.datasource.url");
 
     int maxRetries = 10;
     int retryInterval = 5;
 
     for (int i = 0; i < maxRetries; i++) {
       try {
-        DataSource dataSource = dataSourceBuilder.build();
+        HikariDataSource dataSource = createPool(env, url);
         dataSource.getConnection().close();
         return dataSource;
       } catch (Exception e) {
@@ -52,4 +103,17 @@ public class DatabaseConfig {
     }
     return null;
   }
+
+  private HikariDataSource createPool(Environment env, String url) {
+    HikariDataSource dataSource =
+        DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .url(url)
+            .username(env.getProperty("spring.datasource.username"))
+            .password(env.getProperty("spring.datasource.password"))
+            .build();
+    // Pool size, name and driver properties from spring.datasource.hikari
+    Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+    return dataSource;
+  }
 }
@@ -0,0 +1,45 @@
+package todo.kanban.config;
+
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import todo.kanban.graphql.PersistedDocumentCache;
+import todo.kanban.graphql.QueryCostCalculator;
+
+/** Limits checked before a GraphQL query runs, and the cache that spares parsing it again. */
+@Configuration
+public class GraphQLConfig {
+
+  @Bean
+  public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(
+      @Value("${kanban.graphql.max-depth:15}") int maxDepth) {
+    return new MaxQueryDepthInstrumentation(maxDepth);
+  }
+
+  @Bean
+  public MaxQueryComplexityInstrumentation queryCostInstrumentation(
+      Environment env,
+      @Value("${kanban.graphql.max-cost:5000}") int maxCost,
+      @Value("${kanban.graphql.default-field-cost:1}") int defaultFieldCost,
+      @Value("${kanban.graphql.max-page-size:100}") int maxPageSize) {
+    Map<String, Integer> fieldCosts =
+        Binder.get(env)
+            .bind("kanban.graphql.field-costs", Bindable.mapOf(String.class, Integer.class))
+            .orElse(Map.of());
+    return new MaxQueryComplexityInstrumentation(
+        maxCost, new QueryCostCalculator(fieldCosts, defaultFieldCost, maxPageSize));
+  }
+
+  @Bean
+  public GraphQlSourceBuilderCustomizer persistedDocuments(PersistedDocumentCache documentCache) {
+    return builder ->
+        builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(documentCache));
+  }
+}
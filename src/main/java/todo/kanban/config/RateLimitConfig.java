@@ -0,0 +1,22 @@
+package todo.kanban.config;
+
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import todo.kanban.cluster.PgBucketProxyManager;
+
+@Configuration
+public class RateLimitConfig {
+
+  /** Buckets shared through the database; without this bean every node limits on its own */
+  @Bean
+  @ConditionalOnProperty(name = "kanban.rate-limit.backend", havingValue = "postgres")
+  public ProxyManager<String> rateLimitBuckets(
+      JdbcTemplate jdbcTemplate, @Value("${kanban.rate-limit.period:1m}") Duration period) {
+    return new PgBucketProxyManager(jdbcTemplate, period);
+  }
+}
@@ -1,6 +1,9 @@
 package todo.kanban.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,6 +16,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import todo.kanban.security.BoundedPasswordEncoder;
 import todo.kanban.security.JwtAuthenticationFilter;
 import todo.kanban.security.RateLimitingFilter;
 
@@ -59,8 +63,18 @@ public class SecurityConfig {
     return config.getAuthenticationManager();
   }
 
+  /**
+   * BCrypt at the configured cost, hashed on a bounded pool off the request threads. Hashes stored
+   * at a lower cost are re-encoded on the next successful login.
+   */
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public PasswordEncoder passwordEncoder(
+      @Value("${kanban.password-hashing.strength:10}") int strength,
+      @Value("${kanban.password-hashing.threads:2}") int threads,
+      @Value("${kanban.password-hashing.queue-capacity:50}") int queueCapacity,
+      @Value("${kanban.password-hashing.timeout:5s}") Duration timeout,
+      MeterRegistry meterRegistry) {
+    return new BoundedPasswordEncoder(
+        new BCryptPasswordEncoder(strength), threads, queueCapacity, timeout, meterRegistry);
   }
 }
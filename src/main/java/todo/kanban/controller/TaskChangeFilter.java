@@ -0,0 +1,27 @@
+package todo.kanban.controller;
+
+import java.util.Objects;
+import todo.kanban.dto.TaskDTO;
+import todo.kanban.model.TaskPriority;
+import todo.kanban.model.TaskStatus;
+import todo.kanban.websocket.TaskEvent;
+
+/**
+ * Which task changes a subscription receives. Null fields match anything. A change matches if the
+ * task matched before or after it, so a subscriber also learns when a task leaves its filter.
+ */
+record TaskChangeFilter(
+    TaskStatus status, TaskPriority priority, Long assignedTo, Long createdBy) {
+
+  boolean matches(TaskEvent event) {
+    return matches(event.task()) || matches(event.previous());
+  }
+
+  private boolean matches(TaskDTO.Response task) {
+    return task != null
+        && (status == null || status == task.getStatus())
+        && (priority == null || priority == task.getPriority())
+        && (assignedTo == null || Objects.equals(assignedTo, task.getAssignedTo()))
+        && (createdBy == null || Objects.equals(createdBy, task.getCreatedBy()));
+  }
+}
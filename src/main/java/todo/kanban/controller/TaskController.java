@@ -2,6 +2,7 @@ package todo.kanban.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.util.List;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -98,6 +99,70 @@ public class TaskController {
     return ResponseEntity.ok(taskService.getTasksCreatedByUser(userId, pageable));
   }
 
+  /** Get all tasks page by page with a continuation token instead of page numbers */
+  @GetMapping("/scroll")
+  public ResponseEntity<TaskDTO.CursorPage> scrollAllTasks(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false, defaultValue = "10") Integer size,
+      @RequestParam(required = false, defaultValue = "updatedAt") String sortBy,
+      @RequestParam(required = false, defaultValue = "desc") String sortDir) {
+
+    log.debug("REST request to scroll tasks");
+    return ResponseEntity.ok(taskService.scrollAllTasks(cursor, size, sortBy, sortDir));
+  }
+
+  /** Search tasks by multiple criteria with a continuation token instead of page numbers */
+  @GetMapping("/search/scroll")
+  public ResponseEntity<TaskDTO.CursorPage> scrollSearchTasks(
+      @RequestParam(required = false) String title,
+      @RequestParam(required = false) TaskStatus status,
+      @RequestParam(required = false) TaskPriority priority,
+      @RequestParam(required = false) Long assignedTo,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false, defaultValue = "10") Integer size,
+      @RequestParam(required = false, defaultValue = "updatedAt") String sortBy,
+      @RequestParam(required = false, defaultValue = "desc") String sortDir) {
+
+    log.debug(
+        "REST request to scroll search tasks - title: {}, status: {}, priority: {}, assignedTo: {}",
+        title,
+        status,
+        priority,
+        assignedTo);
+
+    return ResponseEntity.ok(
+        taskService.scrollSearchTasks(
+            title, status, priority, assignedTo, cursor, size, sortBy, sortDir));
+  }
+
+  /** Get tasks assigned to a specific user with a continuation token */
+  @GetMapping("/assigned/{userId}/scroll")
+  public ResponseEntity<TaskDTO.CursorPage> scrollTasksAssignedToUser(
+      @PathVariable Long userId,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false, defaultValue = "10") Integer size,
+      @RequestParam(required = false, defaultValue = "updatedAt") String sortBy,
+      @RequestParam(required = false, defaultValue = "desc") String sortDir) {
+
+    log.debug("REST request to scroll tasks assigned to user: {}", userId);
+    return ResponseEntity.ok(
+        taskService.scrollTasksAssignedToUser(userId, cursor, size, sortBy, sortDir));
+  }
+
+  /** Get tasks created by a specific user with a continuation token */
+  @GetMapping("/created/{userId}/scroll")
+  public ResponseEntity<TaskDTO.CursorPage> scrollTasksCreatedByUser(
+      @PathVariable Long userId,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false, defaultValue = "10") Integer size,
+      @RequestParam(required = false, defaultValue = "updatedAt") String sortBy,
+      @RequestParam(required = false, defaultValue = "desc") String sortDir) {
+
+    log.debug("REST request to scroll tasks created by user: {}", userId);
+    return ResponseEntity.ok(
+        taskService.scrollTasksCreatedByUser(userId, cursor, size, sortBy, sortDir));
+  }
+
   /** Get a task by ID */
   @GetMapping("/{id}")
   public ResponseEntity<TaskDTO.Response> getTaskById(@PathVariable Long id) {
@@ -114,6 +179,29 @@ public class TaskController {
     return new ResponseEntity<>(createdTask, HttpStatus.CREATED);
   }
 
+  /** Create several tasks in one transaction */
+  @PostMapping("/batch")
+  public ResponseEntity<TaskDTO.BatchResponse> createTasks(
+      @Valid @RequestBody TaskDTO.BatchCreate batch) {
+    log.debug("REST request to create {} tasks", batch.getTasks().size());
+    return new ResponseEntity<>(taskService.createTasks(batch.getTasks()), HttpStatus.CREATED);
+  }
+
+  /** Partially update several tasks in one transaction */
+  @PatchMapping(value = "/batch", consumes = "application/json")
+  public ResponseEntity<TaskDTO.BatchResponse> patchTasks(
+      @Valid @RequestBody TaskDTO.BatchPatch batch) {
+    log.debug("REST request to patch {} tasks", batch.getTasks().size());
+    return ResponseEntity.ok(taskService.patchTasks(batch.getTasks()));
+  }
+
+  /** Delete several tasks in one transaction */
+  @DeleteMapping("/batch")
+  public ResponseEntity<TaskDTO.BatchResponse> deleteTasks(@RequestParam List<Long> ids) {
+    log.debug("REST request to delete {} tasks", ids.size());
+    return ResponseEntity.ok(taskService.deleteTasks(ids));
+  }
+
   /** Update a task */
   @PutMapping("/{id}")
   public ResponseEntity<TaskDTO.Response> updateTask(
@@ -1,36 +1,96 @@
 package todo.kanban.controller;
 
-import jakarta.servlet.http.HttpServletRequest;
-import java.util.Objects;
-import lombok.RequiredArgsConstructor;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.SelectedField;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.dataloader.DataLoader;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
 import org.springframework.stereotype.Controller;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import todo.kanban.dto.TaskDTO;
+import todo.kanban.model.TaskPriority;
+import todo.kanban.model.TaskStatus;
+import todo.kanban.repository.UserRepository;
+import todo.kanban.repository.UserSummary;
 import todo.kanban.service.TaskService;
+import todo.kanban.websocket.TaskEvent;
+import todo.kanban.websocket.TaskEventStream;
 
 @Controller
-@RequiredArgsConstructor
 public class TaskGraphQLController {
 
   private final TaskService taskService;
+  private final TaskEventStream taskEventStream;
 
+  public TaskGraphQLController(
+      TaskService taskService,
+      TaskEventStream taskEventStream,
+      UserRepository userRepository,
+      BatchLoaderRegistry registry) {
+    this.taskService = taskService;
+    this.taskEventStream = taskEventStream;
+    // One IN query for all users referenced at one level of a request, cached for the request
+    registry
+        .forTypePair(Long.class, UserSummary.class)
+        .registerMappedBatchLoader(
+            (ids, env) ->
+                Mono.fromCallable(
+                    () ->
+                        userRepository.findSummariesByIdIn(ids).stream()
+                            .collect(Collectors.toMap(UserSummary::id, Function.identity()))));
+  }
+
+  /**
+   * Only the task columns in the selection set are read, the users are joined only when their
+   * usernames are selected, and the count query runs only for {@code totalElements} or {@code
+   * totalPages}.
+   */
   @QueryMapping
-  public Page<TaskDTO.Response> tasks(@Argument Integer page, @Argument Integer size) {
-    HttpServletRequest request =
-        ((ServletRequestAttributes)
-                Objects.requireNonNull(RequestContextHolder.getRequestAttributes()))
-            .getRequest();
+  public Page<TaskDTO.Response> tasks(
+      @Argument TaskStatus status,
+      @Argument TaskPriority priority,
+      @Argument Long assignedTo,
+      @Argument Integer page,
+      @Argument Integer size,
+      DataFetchingFieldSelectionSet selection) {
+    Set<String> columns = new HashSet<>();
+    for (SelectedField field : selection.getFields("content/*")) {
+      columns.add(field.getName());
+    }
+    for (String user : List.of("createdBy", "assignedTo")) {
+      if (selection.contains("content/" + user + "/username")) {
+        columns.add(user + "Username");
+      }
+    }
+    boolean countTotal = selection.contains("totalElements") || selection.contains("totalPages");
 
     Pageable pageable = PageRequest.of(page != null ? page : 0, size != null ? size : 10);
 
-    return taskService.getAllTasks(pageable, request);
+    return taskService.queryTasks(status, priority, assignedTo, columns, pageable, countTotal);
+  }
+
+  @QueryMapping
+  public TaskDTO.CursorPage taskFeed(
+      @Argument TaskStatus status,
+      @Argument Integer first,
+      @Argument String after,
+      @Argument String sortBy) {
+    return taskService.scrollSearchTasks(
+        null, status, null, null, after, first != null ? first : 10, sortBy, "desc");
   }
 
   @QueryMapping
@@ -38,6 +98,25 @@ public class TaskGraphQLController {
     return taskService.getTaskById(id);
   }
 
+  /** Filtered here, so a subscriber is only sent, and only serializes, the changes it asked for */
+  @SubscriptionMapping
+  public Flux<TaskEvent> taskChanged(@Argument TaskChangeFilter filter) {
+    Flux<TaskEvent> events = taskEventStream.events();
+    return filter == null ? events : events.filter(filter::matches);
+  }
+
+  @SchemaMapping(typeName = "Task")
+  public CompletableFuture<UserSummary> createdBy(
+      TaskDTO.Response task, DataLoader<Long, UserSummary> users) {
+    return user(task.getCreatedBy(), task.getCreatedByUsername(), users);
+  }
+
+  @SchemaMapping(typeName = "Task")
+  public CompletableFuture<UserSummary> assignedTo(
+      TaskDTO.Response task, DataLoader<Long, UserSummary> users) {
+    return user(task.getAssignedTo(), task.getAssignedToUsername(), users);
+  }
+
   @MutationMapping
   public TaskDTO.Response createTask(@Argument TaskInput input) {
     TaskDTO.Request request = convertInputToRequest(input);
@@ -56,6 +135,18 @@ public class TaskGraphQLController {
     return true;
   }
 
+  // Listings already join the usernames in; the loader covers responses that lack them
+  private static CompletableFuture<UserSummary> user(
+      Long id, String username, DataLoader<Long, UserSummary> users) {
+    if (id == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    if (username != null) {
+      return CompletableFuture.completedFuture(new UserSummary(id, username));
+    }
+    return users.load(id);
+  }
+
   private TaskDTO.Request convertInputToRequest(TaskInput input) {
     return TaskDTO.Request.builder()
         .title(input.title())
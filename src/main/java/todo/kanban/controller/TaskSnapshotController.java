@@ -0,0 +1,22 @@
+package todo.kanban.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+import todo.kanban.dto.TaskDTO;
+import todo.kanban.service.TaskService;
+
+/** Full task state over STOMP, for clients that missed a delta on a task topic. */
+@Controller
+@RequiredArgsConstructor
+public class TaskSnapshotController {
+
+  private final TaskService taskService;
+
+  /** Subscribing to /app/tasks/{id} replies once with the current task, without a broker round */
+  @SubscribeMapping("/tasks/{id}")
+  public TaskDTO.Response snapshot(@DestinationVariable Long id) {
+    return taskService.getTaskById(id);
+  }
+}
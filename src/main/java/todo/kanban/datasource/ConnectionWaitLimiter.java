@@ -0,0 +1,66 @@
+package todo.kanban.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Caps how many threads may wait on a connection pool at once and fails the rest immediately.
+ *
+ * <p>With virtual threads nothing bounds the number of concurrent requests any more, so thousands
+ * of them could queue inside the pool, each holding its request open until the pool's connection
+ * timeout. Past the cap a caller gets the same {@link SQLTransientConnectionException} the pool
+ * throws on a timeout, only at once, and the request is answered with 503.
+ */
+public class ConnectionWaitLimiter extends DelegatingDataSource {
+
+  private final Semaphore waiters;
+  private final int maxWaiters;
+
+  /**
+   * @param pool Connection pool to guard
+   * @param maxWaiters Most threads waiting in, or acquiring from, the pool at the same time
+   */
+  public ConnectionWaitLimiter(DataSource pool, int maxWaiters) {
+    super(pool);
+    this.waiters = new Semaphore(maxWaiters);
+    this.maxWaiters = maxWaiters;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    acquire();
+    try {
+      return super.getConnection();
+    } finally {
+      waiters.release();
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    acquire();
+    try {
+      return super.getConnection(username, password);
+    } finally {
+      waiters.release();
+    }
+  }
+
+  /**
+   * @return Threads currently waiting for a connection
+   */
+  public int getWaiting() {
+    return maxWaiters - waiters.availablePermits();
+  }
+
+  private void acquire() throws SQLTransientConnectionException {
+    if (!waiters.tryAcquire()) {
+      throw new SQLTransientConnectionException(
+          "More than " + maxWaiters + " requests are waiting for a database connection");
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package todo.kanban.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import todo.kanban.cache.CacheInvalidationBus;
+
+/**
+ * Periodically measures how far each replica is behind and takes lagging or unreachable replicas
+ * out of the {@link ReplicaRoutingDataSource} rotation. Does nothing when no replica is configured.
+ *
+ * <p>A replica that has replayed everything it received counts as current, even if the primary has
+ * been idle for a while. A plain copy that is not in recovery always counts as current.
+ *
+ * <p>In a cluster, invalidations from peer nodes announce their writes, which the replicas have to
+ * catch up with just like local ones.
+ */
+@Component
+@Slf4j
+public class ReplicaLagMonitor implements SmartLifecycle {
+
+  private static final String LAG_QUERY =
+      "SELECT CASE WHEN NOT pg_is_in_recovery()"
+          + " OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+          + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)"
+          + " END";
+
+  private final ReplicaRoutingDataSource routingDataSource;
+  private final Duration maxLag;
+  private final Duration checkInterval;
+  private final ObjectProvider<CacheInvalidationBus> invalidationBus;
+
+  private volatile boolean running;
+  private Thread monitorThread;
+
+  public ReplicaLagMonitor(
+      DataSource dataSource,
+      Environment env,
+      ObjectProvider<CacheInvalidationBus> invalidationBus)
+      throws SQLException {
+    this.invalidationBus = invalidationBus;
+    this.routingDataSource =
+        dataSource.isWrapperFor(ReplicaRoutingDataSource.class)
+            ? dataSource.unwrap(ReplicaRoutingDataSource.class)
+            : null;
+    Binder binder = Binder.get(env);
+    this.maxLag =
+        binder
+            .bind("kanban.datasource.max-replica-lag", Duration.class)
+            .orElse(Duration.ofSeconds(2));
+    this.checkInterval =
+        binder
+            .bind("kanban.datasource.lag-check-interval", Duration.class)
+            .orElse(Duration.ofSeconds(1));
+  }
+
+  @Override
+  public void start() {
+    if (routingDataSource == null) {
+      return;
+    }
+    invalidationBus.ifAvailable(
+        bus -> bus.subscribe(invalidation -> routingDataSource.recordWrite()));
+    running = true;
+    monitorThread = new Thread(this::monitor, "replica-lag-monitor");
+    monitorThread.setDaemon(true);
+    monitorThread.start();
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (monitorThread != null) {
+      monitorThread.interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void monitor() {
+    while (running) {
+      for (Map.Entry<String, DataSource> replica : routingDataSource.getReplicas().entrySet()) {
+        routingDataSource.setReplicaAvailable(replica.getKey(), isCurrent(replica));
+      }
+      try {
+        Thread.sleep(checkInterval.toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private boolean isCurrent(Map.Entry<String, DataSource> replica) {
+    try (Connection connection = replica.getValue().getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+      rs.next();
+      double lagSeconds = rs.getDouble(1);
+      if (lagSeconds * 1000 > maxLag.toMillis()) {
+        log.warn("Replica {} is {} s behind", replica.getKey(), lagSeconds);
+        return false;
+      }
+      return true;
+    } catch (SQLException e) {
+      log.warn("Replica {} is unreachable: {}", replica.getKey(), e.getMessage());
+      return false;
+    }
+  }
+}
@@ -0,0 +1,168 @@
+package todo.kanban.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary.
+ *
+ * <p>The routing decision is taken when a connection is requested, so this data source must sit
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}; otherwise the
+ * transaction manager fetches the connection before the transaction is marked read-only.
+ *
+ * <p>Replicas replay the primary with some delay. A user who committed a write within the
+ * read-your-writes window keeps reading from the primary, and replicas the {@link
+ * ReplicaLagMonitor} finds too far behind or unreachable are skipped until they catch up.
+ *
+ * <p>A replica in rotation may still miss writes committed within the last catch-up period, the
+ * longest lag it can reach before the monitor notices. Results read from a replica in that period
+ * must not go into the caches shared by all users; {@link #lastReadMayBeStale()} tells them apart.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+  public static final String PRIMARY = "primary";
+
+  private static final ThreadLocal<Boolean> STALE_READ =
+      ThreadLocal.withInitial(() -> false);
+
+  private final Map<String, DataSource> replicas;
+  private final List<String> replicaKeys;
+  private final Set<String> unavailableReplicas = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger nextReplica = new AtomicInteger();
+  private final Cache<String, Boolean> recentWriters;
+  private final long catchUpNanos;
+  private volatile long lastWriteAt = System.nanoTime();
+
+  /**
+   * @param primary Primary data source, used for writes and as fallback
+   * @param replicas Replica data sources by name
+   * @param readYourWritesWindow How long after a commit a user's reads stay on the primary
+   * @param catchUp Longest a replica in rotation may be behind the primary
+   */
+  public ReplicaRoutingDataSource(
+      DataSource primary,
+      Map<String, DataSource> replicas,
+      Duration readYourWritesWindow,
+      Duration catchUp) {
+    this.catchUpNanos = catchUp.toNanos();
+    this.replicas = new LinkedHashMap<>(replicas);
+    this.replicaKeys = List.copyOf(replicas.keySet());
+    this.recentWriters =
+        Caffeine.newBuilder().expireAfterWrite(readYourWritesWindow).maximumSize(100_000).build();
+
+    Map<Object, Object> targets = new HashMap<>(replicas);
+    targets.put(PRIMARY, primary);
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+    afterPropertiesSet();
+  }
+
+  /**
+   * @return Replica data sources by name
+   */
+  public Map<String, DataSource> getReplicas() {
+    return replicas;
+  }
+
+  /**
+   * Take a replica out of or back into rotation
+   *
+   * @param replica Replica name
+   * @param available Whether it may serve reads
+   */
+  public void setReplicaAvailable(String replica, boolean available) {
+    boolean changed =
+        available ? unavailableReplicas.remove(replica) : unavailableReplicas.add(replica);
+    if (changed) {
+      log.info("Replica {} is {}", replica, available ? "back in rotation" : "out of rotation");
+    }
+  }
+
+  /**
+   * Whether the last connection this thread obtained came from a replica that may not have
+   * replayed a recent write yet. Used by {@code unless} conditions of cached reads.
+   *
+   * @return True if the data read on it must not be cached
+   */
+  public static boolean lastReadMayBeStale() {
+    return STALE_READ.get();
+  }
+
+  /** Note a write committed elsewhere, such as on another node, that replicas have to catch up */
+  public void recordWrite() {
+    lastWriteAt = System.nanoTime();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    String key = route();
+    STALE_READ.set(
+        !PRIMARY.equals(key) && System.nanoTime() - lastWriteAt < catchUpNanos);
+    return key;
+  }
+
+  private String route() {
+    String username = currentUsername();
+
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      rememberWriteOnCommit(username);
+      return PRIMARY;
+    }
+
+    if (username != null && recentWriters.getIfPresent(username) != null) {
+      return PRIMARY;
+    }
+
+    for (int i = 0; i < replicaKeys.size(); i++) {
+      String replica =
+          replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+      if (!unavailableReplicas.contains(replica)) {
+        return replica;
+      }
+    }
+    return PRIMARY;
+  }
+
+  private void rememberWriteOnCommit(String username) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            recordWrite();
+            if (username != null) {
+              recentWriters.put(username, Boolean.TRUE);
+            }
+          }
+        });
+  }
+
+  private static String currentUsername() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null
+        || !authentication.isAuthenticated()
+        || authentication instanceof AnonymousAuthenticationToken) {
+      return null;
+    }
+    return authentication.getName();
+  }
+}
@@ -1,8 +1,13 @@
 package todo.kanban.dto;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,6 +18,9 @@ import todo.kanban.validation.EnumValidator;
 
 public class TaskDTO {
 
+  /** Upper bound on the items of one batch request. */
+  public static final int MAX_BATCH_SIZE = 1000;
+
   @Data
   @Builder
   @NoArgsConstructor
@@ -36,6 +44,9 @@ public class TaskDTO {
     private TaskPriority priority;
 
     private Long assignedTo;
+
+    /** Version the client last saw; an update conflicts if the task has moved on. Optional. */
+    private Long version;
   }
 
   @Data
@@ -56,4 +67,82 @@ public class TaskDTO {
     private LocalDateTime updatedAt;
     private Long version;
   }
+
+  /** One page of a keyset listing. There is no total count, so every page costs the same. */
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class CursorPage {
+    private List<Response> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+  }
+
+  /** Tasks to create in one transaction. */
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class BatchCreate {
+    @NotEmpty(message = "At least one task is required")
+    @Size(max = MAX_BATCH_SIZE, message = "At most {max} tasks per batch")
+    private List<@Valid Request> tasks;
+  }
+
+  /** Partial updates to apply in one transaction. */
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class BatchPatch {
+    @NotEmpty(message = "At least one task is required")
+    @Size(max = MAX_BATCH_SIZE, message = "At most {max} tasks per batch")
+    private List<@Valid PatchItem> tasks;
+  }
+
+  /** One item of a batch patch, with the same fields as a single merge patch. */
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class PatchItem {
+    @NotNull(message = "Task id is required")
+    private Long id;
+
+    /** Version the client last saw; the item conflicts if the task has moved on. Optional. */
+    private Long version;
+
+    @NotNull(message = "Updates are required")
+    private Map<String, Object> updates;
+  }
+
+  /** Result of a batch, one entry per requested item in request order. */
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class BatchResponse {
+    private List<BatchItem> results;
+  }
+
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class BatchItem {
+    private int index;
+    private Long id;
+    private BatchOutcome outcome;
+
+    /** Task state after the operation, absent for deletions. */
+    private Response task;
+  }
+
+  public enum BatchOutcome {
+    CREATED,
+    UPDATED,
+    DELETED
+  }
 }
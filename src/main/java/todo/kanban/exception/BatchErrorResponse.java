@@ -0,0 +1,18 @@
+package todo.kanban.exception;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchErrorResponse {
+  private int status;
+  private String message;
+  private String path;
+  private Integer failedIndex;
+  private Long failedTaskId;
+  private LocalDateTime timestamp;
+}
@@ -0,0 +1,23 @@
+package todo.kanban.exception;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when one item of a batch fails. The whole batch is rolled back; the cause tells
+ * why the item failed and decides the response status.
+ */
+@Getter
+public class BatchOperationException extends RuntimeException {
+
+  /** Position of the failed item in the request, null if the database rejected the batch. */
+  private final Integer index;
+
+  /** Id of the task the failed item refers to, null for creations. */
+  private final Long taskId;
+
+  public BatchOperationException(Integer index, Long taskId, RuntimeException cause) {
+    super(cause.getMessage(), cause);
+    this.index = index;
+    this.taskId = taskId;
+  }
+}
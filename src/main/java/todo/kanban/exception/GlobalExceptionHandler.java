@@ -4,15 +4,20 @@ import jakarta.validation.ConstraintViolationException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.context.request.WebRequest;
 
 @ControllerAdvice
@@ -123,6 +128,50 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
   }
 
+  @ExceptionHandler(BatchOperationException.class)
+  public ResponseEntity<BatchErrorResponse> handleBatchOperationException(
+      BatchOperationException ex, WebRequest request) {
+
+    HttpStatus status = statusOf(ex.getCause());
+    BatchErrorResponse errorResponse =
+        new BatchErrorResponse(
+            status.value(),
+            ex.getMessage(),
+            request.getDescription(false),
+            ex.getIndex(),
+            ex.getTaskId(),
+            LocalDateTime.now());
+
+    return new ResponseEntity<>(errorResponse, status);
+  }
+
+  /** The pool timed out, or too many requests were already waiting for it */
+  @ExceptionHandler({
+    CannotCreateTransactionException.class,
+    DataAccessResourceFailureException.class
+  })
+  public ResponseEntity<ErrorResponse> handleConnectionUnavailable(
+      RuntimeException ex, WebRequest request) {
+    return handleServiceBusyException(
+        new ServiceBusyException("The service is busy, please retry"), request);
+  }
+
+  @ExceptionHandler(ServiceBusyException.class)
+  public ResponseEntity<ErrorResponse> handleServiceBusyException(
+      ServiceBusyException ex, WebRequest request) {
+
+    ErrorResponse errorResponse =
+        new ErrorResponse(
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            ex.getMessage(),
+            request.getDescription(false),
+            LocalDateTime.now());
+
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(errorResponse);
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<ErrorResponse> handleGlobalException(Exception ex, WebRequest request) {
 
@@ -135,4 +184,21 @@ public class GlobalExceptionHandler {
 
     return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
   }
+
+  /** Status the failed item of a batch would have produced as a single request */
+  private static HttpStatus statusOf(Throwable cause) {
+    ResponseStatus responseStatus =
+        AnnotatedElementUtils.findMergedAnnotation(cause.getClass(), ResponseStatus.class);
+    if (responseStatus != null) {
+      return responseStatus.code();
+    }
+    if (cause instanceof OptimisticLockingFailureException
+        || cause instanceof DataIntegrityViolationException) {
+      return HttpStatus.CONFLICT;
+    }
+    if (cause instanceof IllegalArgumentException) {
+      return HttpStatus.BAD_REQUEST;
+    }
+    return HttpStatus.INTERNAL_SERVER_ERROR;
+  }
 }
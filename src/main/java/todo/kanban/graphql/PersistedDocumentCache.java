@@ -0,0 +1,113 @@
+package todo.kanban.graphql;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps parsed and validated GraphQL documents by the SHA-256 of their text, so a repeated query
+ * skips both steps.
+ *
+ * <p>Also serves automatic persisted queries: a request carrying {@code
+ * extensions.persistedQuery.sha256Hash} and no query text, or the text {@value
+ * PersistedQuerySupport#PERSISTED_QUERY_MARKER}, runs the cached document. If the document is not
+ * cached the request fails with {@code PersistedQueryNotFound} and the client resends it with the
+ * text, which is then cached under its hash. Only documents that validate are cached.
+ */
+@Component
+public class PersistedDocumentCache implements PreparsedDocumentProvider {
+
+  private final Cache<String, PreparsedDocumentEntry> documents;
+
+  public PersistedDocumentCache(
+      @Value("${kanban.graphql.document-cache-size:1000}") int maximumSize,
+      MeterRegistry meterRegistry) {
+    this.documents = Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+    CaffeineCacheMetrics.monitor(meterRegistry, documents, "graphqlDocuments");
+  }
+
+  @Override
+  public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(
+      ExecutionInput executionInput,
+      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+    String query = executionInput.getQuery();
+    String persistedHash = persistedQueryHash(executionInput.getExtensions());
+    boolean hasText =
+        query != null
+            && !query.isBlank()
+            && !PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query);
+
+    if (!hasText) {
+      if (persistedHash == null) {
+        // Nothing to look up, let the parser report the missing query
+        return CompletableFuture.completedFuture(parseAndValidateFunction.apply(executionInput));
+      }
+      PreparsedDocumentEntry cached = documents.getIfPresent(persistedHash);
+      return CompletableFuture.completedFuture(
+          cached != null ? cached : notFound(new PersistedQueryNotFound(persistedHash)));
+    }
+
+    String hash = sha256(query);
+    if (persistedHash != null && !persistedHash.equalsIgnoreCase(hash)) {
+      return CompletableFuture.completedFuture(
+          new PreparsedDocumentEntry(
+              GraphqlErrorBuilder.newError()
+                  .message("PersistedQueryIdInvalid")
+                  .extensions(Map.of("persistedQueryId", persistedHash))
+                  .build()));
+    }
+    PreparsedDocumentEntry cached = documents.getIfPresent(hash);
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+    PreparsedDocumentEntry entry = parseAndValidateFunction.apply(executionInput);
+    if (!entry.hasErrors()) {
+      documents.put(hash, entry);
+    }
+    return CompletableFuture.completedFuture(entry);
+  }
+
+  // The classification clients look for, as an error of its own
+  private static PreparsedDocumentEntry notFound(PersistedQueryNotFound notFound) {
+    return new PreparsedDocumentEntry(
+        GraphqlErrorBuilder.newError()
+            .message(notFound.getMessage())
+            .errorType(notFound)
+            .extensions(notFound.getExtensions())
+            .build());
+  }
+
+  private static String persistedQueryHash(Map<String, Object> extensions) {
+    if (extensions != null
+        && extensions.get("persistedQuery") instanceof Map<?, ?> persistedQuery
+        && persistedQuery.get("sha256Hash") instanceof String hash) {
+      return hash;
+    }
+    return null;
+  }
+
+  private static String sha256(String query) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(query.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
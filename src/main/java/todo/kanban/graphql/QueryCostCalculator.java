@@ -0,0 +1,61 @@
+package todo.kanban.graphql;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.FieldComplexityEnvironment;
+import graphql.execution.AbortExecutionException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prices a GraphQL field before execution. A field costs its configured cost, or the default, plus
+ * what its selection costs; on a paged field the selection is paid once per requested row, so
+ * {@code tasks(size: 100) { content { ... } }} costs a hundred times its content. A page size
+ * outside the cap aborts the query.
+ *
+ * <p>Aliases are separate fields, so asking for the same page under several aliases costs each one.
+ */
+public class QueryCostCalculator implements FieldComplexityCalculator {
+
+  private static final List<String> PAGE_SIZE_ARGUMENTS = List.of("size", "first");
+
+  private final Map<String, Integer> fieldCosts;
+  private final int defaultCost;
+  private final int maxPageSize;
+
+  /**
+   * @param fieldCosts Costs by field coordinate, e.g. {@code Query.tasks}
+   * @param defaultCost Cost of a field without its own
+   * @param maxPageSize Largest page a query may request
+   */
+  public QueryCostCalculator(Map<String, Integer> fieldCosts, int defaultCost, int maxPageSize) {
+    this.fieldCosts = Map.copyOf(fieldCosts);
+    this.defaultCost = defaultCost;
+    this.maxPageSize = maxPageSize;
+  }
+
+  @Override
+  public int calculate(FieldComplexityEnvironment environment, int childComplexity) {
+    String coordinate =
+        environment.getParentType().getName() + "." + environment.getField().getName();
+    int cost = fieldCosts.getOrDefault(coordinate, defaultCost);
+
+    Integer pageSize = pageSize(environment.getArguments());
+    if (pageSize == null) {
+      return cost + childComplexity;
+    }
+    if (pageSize < 1 || pageSize > maxPageSize) {
+      throw new AbortExecutionException(
+          coordinate + " page size must be between 1 and " + maxPageSize + ", was " + pageSize);
+    }
+    return cost + childComplexity * pageSize;
+  }
+
+  private static Integer pageSize(Map<String, Object> arguments) {
+    for (String name : PAGE_SIZE_ARGUMENTS) {
+      if (arguments.get(name) instanceof Integer size) {
+        return size;
+      }
+    }
+    return null;
+  }
+}
@@ -6,6 +6,7 @@ import todo.kanban.model.Task;
 import todo.kanban.model.TaskPriority;
 import todo.kanban.model.TaskStatus;
 import todo.kanban.model.User;
+import todo.kanban.repository.TaskView;
 
 @Component
 public class Mapper {
@@ -47,6 +48,23 @@ public class Mapper {
     return responseBuilder.build();
   }
 
+  public TaskDTO.Response toDto(TaskView view) {
+    return TaskDTO.Response.builder()
+        .id(view.id())
+        .title(view.title())
+        .description(view.description())
+        .status(view.status())
+        .priority(view.priority())
+        .createdBy(view.createdBy())
+        .createdByUsername(view.createdByUsername())
+        .assignedTo(view.assignedTo())
+        .assignedToUsername(view.assignedToUsername())
+        .createdAt(view.createdAt())
+        .updatedAt(view.updatedAt())
+        .version(view.version())
+        .build();
+  }
+
   public void updateEntityFromDto(TaskDTO.Request dto, Task task) {
     if (dto.getTitle() != null) {
       task.setTitle(dto.getTitle());
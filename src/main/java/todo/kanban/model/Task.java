@@ -18,8 +18,10 @@ import todo.kanban.mapper.TaskPriorityConverter;
 @AllArgsConstructor
 public class Task {
 
+  // Pooled sequence instead of IDENTITY so Hibernate knows the ids before inserting and can batch
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_id_seq")
+  @SequenceGenerator(name = "tasks_id_seq", sequenceName = "tasks_id_seq", allocationSize = 50)
   private Long id;
 
   @Column(nullable = false)
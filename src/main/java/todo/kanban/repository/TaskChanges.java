@@ -0,0 +1,65 @@
+package todo.kanban.repository;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import todo.kanban.model.TaskPriority;
+import todo.kanban.model.TaskStatus;
+
+/**
+ * Columns to write in a conditional task update. Only the columns set here appear in the UPDATE;
+ * setting one to null clears it.
+ */
+public final class TaskChanges {
+
+  private final Map<String, Object> columns = new LinkedHashMap<>();
+  private TaskStatus status;
+
+  public TaskChanges title(String title) {
+    columns.put("title", title);
+    return this;
+  }
+
+  public TaskChanges description(String description) {
+    columns.put("description", description);
+    return this;
+  }
+
+  public TaskChanges status(TaskStatus status) {
+    columns.put("status", status.name());
+    this.status = status;
+    return this;
+  }
+
+  public TaskChanges priority(TaskPriority priority) {
+    columns.put("priority", priority.name());
+    return this;
+  }
+
+  public TaskChanges assignedTo(Long userId) {
+    columns.put("assigned_to", userId);
+    return this;
+  }
+
+  /**
+   * @return New status, null if the status is not changed
+   */
+  public TaskStatus status() {
+    return status;
+  }
+
+  /**
+   * @return New assignee, null if the assignment is cleared or not changed
+   */
+  public Long assignedTo() {
+    return (Long) columns.get("assigned_to");
+  }
+
+  public boolean isEmpty() {
+    return columns.isEmpty();
+  }
+
+  Map<String, Object> columns() {
+    return Collections.unmodifiableMap(columns);
+  }
+}
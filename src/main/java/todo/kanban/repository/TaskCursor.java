@@ -0,0 +1,83 @@
+package todo.kanban.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import org.springframework.data.domain.Sort;
+import todo.kanban.exception.IllegalOperationException;
+import todo.kanban.model.Task;
+
+/**
+ * Keyset position in a task listing: the sort column value and id of the last row returned.
+ * Clients only ever see the opaque {@link #encode() encoded} form.
+ *
+ * @param sortBy Keyset column, {@code updatedAt} or {@code createdAt}
+ * @param direction Sort direction of both the column and the id tie-breaker
+ * @param value Column value of the last row
+ * @param id Id of the last row
+ */
+public record TaskCursor(String sortBy, Sort.Direction direction, LocalDateTime value, Long id) {
+
+  public static final List<String> SORT_PROPERTIES = List.of("updatedAt", "createdAt");
+
+  private static final String SEPARATOR = "|";
+
+  /**
+   * Position after the given task
+   *
+   * @param task Last task of a page
+   * @param sortBy Keyset column
+   * @param direction Sort direction
+   * @return Cursor pointing after the task
+   */
+  public static TaskCursor after(Task task, String sortBy, Sort.Direction direction) {
+    LocalDateTime value = "createdAt".equals(sortBy) ? task.getCreatedAt() : task.getUpdatedAt();
+    return new TaskCursor(sortBy, direction, value, task.getId());
+  }
+
+  /**
+   * Position after the given listing row
+   *
+   * @param view Last row of a page
+   * @param sortBy Keyset column
+   * @param direction Sort direction
+   * @return Cursor pointing after the row
+   */
+  public static TaskCursor after(TaskView view, String sortBy, Sort.Direction direction) {
+    LocalDateTime value = "createdAt".equals(sortBy) ? view.createdAt() : view.updatedAt();
+    return new TaskCursor(sortBy, direction, value, view.id());
+  }
+
+  /**
+   * Decode a continuation token
+   *
+   * @param token Token from a previous page
+   * @return Decoded cursor
+   * @throws IllegalOperationException if the token was not produced by {@link #encode()}
+   */
+  public static TaskCursor decode(String token) {
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      String[] parts = decoded.split("\\" + SEPARATOR);
+      if (parts.length != 4 || !SORT_PROPERTIES.contains(parts[0])) {
+        throw new IllegalOperationException("Invalid cursor");
+      }
+      return new TaskCursor(
+          parts[0],
+          Sort.Direction.valueOf(parts[1]),
+          LocalDateTime.parse(parts[2]),
+          Long.valueOf(parts[3]));
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new IllegalOperationException("Invalid cursor");
+    }
+  }
+
+  public String encode() {
+    String raw = String.join(SEPARATOR, sortBy, direction.name(), value.toString(), id.toString());
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+}
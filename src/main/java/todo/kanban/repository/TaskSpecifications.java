@@ -0,0 +1,103 @@
+package todo.kanban.repository;
+
+import jakarta.persistence.criteria.Path;
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.domain.Specification;
+import todo.kanban.model.Task;
+import todo.kanban.model.TaskPriority;
+import todo.kanban.model.TaskStatus;
+
+/** Reusable filters for task queries. Null arguments produce no restriction. */
+public final class TaskSpecifications {
+
+  private static final char LIKE_ESCAPE = '\\';
+
+  private TaskSpecifications() {}
+
+  /**
+   * Combine the filters offered by the search endpoint
+   *
+   * @param title Optional title search term
+   * @param status Optional status filter
+   * @param priority Optional priority filter
+   * @param assignedTo Optional assignee filter, 0 for unassigned tasks
+   * @return Combined specification
+   */
+  public static Specification<Task> search(
+      String title, TaskStatus status, TaskPriority priority, Long assignedTo) {
+    return Specification.where(titleContains(title))
+        .and(hasStatus(status))
+        .and(hasPriority(priority))
+        .and(assignedTo(assignedTo));
+  }
+
+  /**
+   * Case-insensitive substring match on the title. The expression is exactly {@code lower(title)}
+   * so the trigram index on it applies, and LIKE wildcards in the term are escaped so a search for
+   * "100%" neither matches everything nor defeats the index.
+   *
+   * @param title Search term
+   * @return Specification, or null for a blank term
+   */
+  public static Specification<Task> titleContains(String title) {
+    if (title == null || title.isBlank()) {
+      return null;
+    }
+    String pattern = "%" + escapeLike(title.toLowerCase()) + "%";
+    return (root, query, cb) -> cb.like(cb.lower(root.get("title")), pattern, LIKE_ESCAPE);
+  }
+
+  public static Specification<Task> hasStatus(TaskStatus status) {
+    return status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status);
+  }
+
+  public static Specification<Task> hasPriority(TaskPriority priority) {
+    return priority == null ? null : (root, query, cb) -> cb.equal(root.get("priority"), priority);
+  }
+
+  public static Specification<Task> assignedTo(Long userId) {
+    if (userId == null) {
+      return null;
+    }
+    return (root, query, cb) ->
+        userId == 0
+            ? cb.isNull(root.get("assignedTo"))
+            : cb.equal(root.get("assignedTo").get("id"), userId);
+  }
+
+  public static Specification<Task> createdBy(Long userId) {
+    return userId == null
+        ? null
+        : (root, query, cb) -> cb.equal(root.get("createdBy").get("id"), userId);
+  }
+
+  /**
+   * Restrict to the rows after a keyset position, in the cursor's sort order
+   *
+   * <p>The inclusive bound on the timestamp alone is redundant, but it is what lets the planner
+   * start an index range scan at the position instead of filtering from the first row.
+   *
+   * @param cursor Position of the last row of the previous page
+   * @return Specification seeking past the cursor
+   */
+  public static Specification<Task> after(TaskCursor cursor) {
+    return (root, query, cb) -> {
+      Path<LocalDateTime> value = root.get(cursor.sortBy());
+      Path<Long> id = root.get("id");
+
+      if (cursor.direction().isAscending()) {
+        return cb.and(
+            cb.greaterThanOrEqualTo(value, cursor.value()),
+            cb.or(cb.greaterThan(value, cursor.value()), cb.greaterThan(id, cursor.id())));
+      }
+
+      return cb.and(
+          cb.lessThanOrEqualTo(value, cursor.value()),
+          cb.or(cb.lessThan(value, cursor.value()), cb.lessThan(id, cursor.id())));
+    };
+  }
+
+  private static String escapeLike(String term) {
+    return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+}
@@ -0,0 +1,9 @@
+package todo.kanban.repository;
+
+/**
+ * Result of a conditional task update
+ *
+ * @param previous Row as it was before the update
+ * @param current Row as written by the update
+ */
+public record TaskUpdate(TaskView previous, TaskView current) {}
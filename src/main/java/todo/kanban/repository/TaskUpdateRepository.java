@@ -0,0 +1,24 @@
+package todo.kanban.repository;
+
+import java.util.Optional;
+import java.util.Set;
+import todo.kanban.model.TaskStatus;
+
+/** Single-statement writes that bypass loading the entity, see {@link TaskUpdateRepositoryImpl}. */
+public interface TaskUpdateRepository {
+
+  /**
+   * Update the changed columns of a task if it still matches the expected state, bumping its
+   * version. The row before and after the update comes back from the same statement.
+   *
+   * @param id Task ID
+   * @param expectedVersion Version the caller last saw, null to skip the check
+   * @param fromStatuses Statuses the task may currently have, null to skip the check
+   * @param changes Columns to write
+   * @return Row before and after the update, empty if no row matched
+   * @throws org.springframework.dao.DataIntegrityViolationException if the new assignee does not
+   *     exist
+   */
+  Optional<TaskUpdate> updateIfMatches(
+      Long id, Long expectedVersion, Set<TaskStatus> fromStatuses, TaskChanges changes);
+}
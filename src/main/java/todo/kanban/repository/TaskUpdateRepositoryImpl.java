@@ -0,0 +1,119 @@
+package todo.kanban.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import todo.kanban.model.TaskPriority;
+import todo.kanban.model.TaskStatus;
+
+/**
+ * Conditional UPDATE with RETURNING. The previous row is locked and read in a CTE of the same
+ * statement, so the caller gets both complete states for cache eviction and change events in one
+ * round trip; the creator and assignee usernames of both are joined onto the result.
+ *
+ * <p>Timestamps are written and read as UTC wall-clock time, the way Hibernate stores them with
+ * {@code hibernate.jdbc.time_zone=UTC}.
+ */
+class TaskUpdateRepositoryImpl implements TaskUpdateRepository {
+
+  private static final Map<String, String> COLUMN_VALUES =
+      Map.of(
+          "status", "CAST(:status AS task_status)",
+          "priority", "CAST(:priority AS task_priority)");
+
+  // Prefix of the columns holding the row as it was before the update
+  private static final String PREVIOUS = "previous_";
+
+  private static final String RETURNING =
+      " RETURNING t.*, p.title AS previous_title, p.description AS previous_description,"
+          + " p.status AS previous_status, p.priority AS previous_priority,"
+          + " p.created_by AS previous_created_by, p.assigned_to AS previous_assigned_to,"
+          + " p.created_at AS previous_created_at, p.updated_at AS previous_updated_at,"
+          + " p.version AS previous_version)";
+
+  private static final String RESULT =
+      " SELECT u.*, c.username AS created_by_username, a.username AS assigned_to_username,"
+          + " pc.username AS previous_created_by_username,"
+          + " pa.username AS previous_assigned_to_username"
+          + " FROM updated u"
+          + " LEFT JOIN users c ON c.id = u.created_by"
+          + " LEFT JOIN users a ON a.id = u.assigned_to"
+          + " LEFT JOIN users pc ON pc.id = u.previous_created_by"
+          + " LEFT JOIN users pa ON pa.id = u.previous_assigned_to";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  TaskUpdateRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public Optional<TaskUpdate> updateIfMatches(
+      Long id, Long expectedVersion, Set<TaskStatus> fromStatuses, TaskChanges changes) {
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("id", id)
+            .addValue("updatedAt", LocalDateTime.now(ZoneOffset.UTC));
+    String assignments =
+        changes.columns().keySet().stream()
+            .map(column -> column + " = " + COLUMN_VALUES.getOrDefault(column, ":" + column))
+            .collect(Collectors.joining(", "));
+    params.addValues(changes.columns());
+
+    StringBuilder sql =
+        new StringBuilder("WITH previous AS (SELECT * FROM tasks WHERE id = :id FOR UPDATE),")
+            .append(" updated AS (UPDATE tasks t SET ")
+            .append(assignments)
+            .append(", version = t.version + 1, updated_at = :updatedAt")
+            .append(" FROM previous p WHERE t.id = p.id");
+    if (expectedVersion != null) {
+      sql.append(" AND t.version = :version");
+      params.addValue("version", expectedVersion);
+    }
+    if (fromStatuses != null) {
+      sql.append(" AND CAST(t.status AS text) IN (:fromStatuses)");
+      params.addValue("fromStatuses", fromStatuses.stream().map(Enum::name).toList());
+    }
+    sql.append(RETURNING).append(RESULT);
+
+    List<TaskUpdate> rows = jdbcTemplate.query(sql.toString(), params, this::toUpdate);
+    return rows.stream().findFirst();
+  }
+
+  private TaskUpdate toUpdate(ResultSet rs, int rowNum) throws SQLException {
+    return new TaskUpdate(toView(rs, PREVIOUS), toView(rs, ""));
+  }
+
+  private static TaskView toView(ResultSet rs, String prefix) throws SQLException {
+    return new TaskView(
+        rs.getLong("id"),
+        rs.getString(prefix + "title"),
+        rs.getString(prefix + "description"),
+        TaskStatus.valueOf(rs.getString(prefix + "status")),
+        TaskPriority.valueOf(rs.getString(prefix + "priority")),
+        rs.getObject(prefix + "created_by", Long.class),
+        rs.getString(prefix + "created_by_username"),
+        rs.getObject(prefix + "assigned_to", Long.class),
+        rs.getString(prefix + "assigned_to_username"),
+        localTime(rs, prefix + "created_at"),
+        localTime(rs, prefix + "updated_at"),
+        rs.getLong(prefix + "version"));
+  }
+
+  private static LocalDateTime localTime(ResultSet rs, String column) throws SQLException {
+    Timestamp timestamp =
+        rs.getTimestamp(column, Calendar.getInstance(TimeZone.getTimeZone(ZoneOffset.UTC)));
+    return timestamp != null ? timestamp.toLocalDateTime() : null;
+  }
+}
@@ -0,0 +1,23 @@
+package todo.kanban.repository;
+
+import java.time.LocalDateTime;
+import todo.kanban.model.TaskPriority;
+import todo.kanban.model.TaskStatus;
+
+/**
+ * Read-only row of a task listing with the creator and assignee usernames already joined in. Built
+ * by a constructor expression, so no {@code Task} entity or snapshot is ever materialized.
+ */
+public record TaskView(
+    Long id,
+    String title,
+    String description,
+    TaskStatus status,
+    TaskPriority priority,
+    Long createdBy,
+    String createdByUsername,
+    Long assignedTo,
+    String assignedToUsername,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt,
+    Long version) {}
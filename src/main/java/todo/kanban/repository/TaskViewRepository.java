@@ -0,0 +1,56 @@
+package todo.kanban.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import todo.kanban.model.Task;
+
+/** Projection queries for the read paths, see {@link TaskView}. */
+public interface TaskViewRepository {
+
+  /**
+   * Find one task as a view
+   *
+   * @param id Task ID
+   * @return View, empty if there is no such task
+   */
+  Optional<TaskView> findViewById(Long id);
+
+  /**
+   * Find one page of views
+   *
+   * @param spec Optional filter
+   * @param pageable Page and sort
+   * @return Page of views
+   */
+  Page<TaskView> findViews(Specification<Task> spec, Pageable pageable);
+
+  /**
+   * Find the first views in the given order, without a count query
+   *
+   * @param spec Optional filter
+   * @param sort Sort order
+   * @param limit Maximum number of rows
+   * @return Views
+   */
+  List<TaskView> findViews(Specification<Task> spec, Sort sort, int limit);
+
+  /**
+   * Find one page of views reading only some columns. The id is always read; every other
+   * component of {@link TaskView} is read only if named, and null otherwise. Naming {@code
+   * createdByUsername} or {@code assignedToUsername} joins that user, the user ids alone come from
+   * the task row.
+   *
+   * @param spec Optional filter
+   * @param columns Names of the {@link TaskView} components to read
+   * @param pageable Page and sort
+   * @param countTotal Whether to run the count query; without it the total is only a lower bound
+   * @return Page of partial views
+   */
+  Page<TaskView> findViews(
+      Specification<Task> spec, Set<String> columns, Pageable pageable, boolean countTotal);
+}
@@ -0,0 +1,188 @@
+package todo.kanban.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import todo.kanban.model.Task;
+import todo.kanban.model.TaskPriority;
+import todo.kanban.model.TaskStatus;
+import todo.kanban.model.User;
+
+/**
+ * Criteria implementation of {@link TaskViewRepository}. Both users are left-joined and selected
+ * as scalars next to the task columns; the same {@link TaskSpecifications} filters apply as on the
+ * entity queries.
+ */
+class TaskViewRepositoryImpl implements TaskViewRepository {
+
+  private static final List<String> TASK_COLUMNS =
+      List.of("title", "description", "status", "priority", "createdAt", "updatedAt", "version");
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Override
+  public Optional<TaskView> findViewById(Long id) {
+    Specification<Task> byId = (root, query, cb) -> cb.equal(root.get("id"), id);
+    return createQuery(byId, Sort.unsorted()).getResultStream().findFirst();
+  }
+
+  @Override
+  public Page<TaskView> findViews(Specification<Task> spec, Pageable pageable) {
+    TypedQuery<TaskView> query = createQuery(spec, pageable.getSort());
+    if (pageable.isPaged()) {
+      query.setFirstResult((int) pageable.getOffset());
+      query.setMaxResults(pageable.getPageSize());
+    }
+    return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(spec));
+  }
+
+  @Override
+  public List<TaskView> findViews(Specification<Task> spec, Sort sort, int limit) {
+    return createQuery(spec, sort).setMaxResults(limit).getResultList();
+  }
+
+  @Override
+  public Page<TaskView> findViews(
+      Specification<Task> spec, Set<String> columns, Pageable pageable, boolean countTotal) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = cb.createTupleQuery();
+    Root<Task> task = query.from(Task.class);
+
+    Set<String> selected = new HashSet<>();
+    List<Selection<?>> selections = new ArrayList<>();
+    selections.add(task.get("id").alias("id"));
+    for (String column : TASK_COLUMNS) {
+      if (columns.contains(column)) {
+        selections.add(task.get(column).alias(column));
+        selected.add(column);
+      }
+    }
+    selectUser(task, "createdBy", columns, selections, selected);
+    selectUser(task, "assignedTo", columns, selections, selected);
+    query.multiselect(selections);
+    applyFilter(spec, task, query, cb);
+    if (pageable.getSort().isSorted()) {
+      query.orderBy(QueryUtils.toOrders(pageable.getSort(), task, cb));
+    }
+
+    TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+    if (pageable.isPaged()) {
+      typedQuery.setFirstResult((int) pageable.getOffset());
+      typedQuery.setMaxResults(pageable.getPageSize());
+    }
+    List<TaskView> content =
+        typedQuery.getResultList().stream().map(row -> toView(row, selected)).toList();
+    return PageableExecutionUtils.getPage(
+        content,
+        pageable,
+        countTotal ? () -> count(spec) : () -> pageable.getOffset() + content.size());
+  }
+
+  private static void selectUser(
+      Root<Task> task,
+      String association,
+      Set<String> columns,
+      List<Selection<?>> selections,
+      Set<String> selected) {
+    String username = association + "Username";
+    if (columns.contains(association) || columns.contains(username)) {
+      // The foreign key column, no join needed
+      selections.add(task.get(association).get("id").alias(association));
+      selected.add(association);
+    }
+    if (columns.contains(username)) {
+      Join<Task, User> user = task.join(association, JoinType.LEFT);
+      selections.add(user.get("username").alias(username));
+      selected.add(username);
+    }
+  }
+
+  private static TaskView toView(Tuple row, Set<String> selected) {
+    return new TaskView(
+        row.get("id", Long.class),
+        column(row, selected, "title", String.class),
+        column(row, selected, "description", String.class),
+        column(row, selected, "status", TaskStatus.class),
+        column(row, selected, "priority", TaskPriority.class),
+        column(row, selected, "createdBy", Long.class),
+        column(row, selected, "createdByUsername", String.class),
+        column(row, selected, "assignedTo", Long.class),
+        column(row, selected, "assignedToUsername", String.class),
+        column(row, selected, "createdAt", LocalDateTime.class),
+        column(row, selected, "updatedAt", LocalDateTime.class),
+        column(row, selected, "version", Long.class));
+  }
+
+  private static <T> T column(Tuple row, Set<String> selected, String alias, Class<T> type) {
+    return selected.contains(alias) ? row.get(alias, type) : null;
+  }
+
+  private TypedQuery<TaskView> createQuery(Specification<Task> spec, Sort sort) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<TaskView> query = cb.createQuery(TaskView.class);
+    Root<Task> task = query.from(Task.class);
+    Join<Task, User> createdBy = task.join("createdBy", JoinType.LEFT);
+    Join<Task, User> assignedTo = task.join("assignedTo", JoinType.LEFT);
+
+    query.select(
+        cb.construct(
+            TaskView.class,
+            task.get("id"),
+            task.get("title"),
+            task.get("description"),
+            task.get("status"),
+            task.get("priority"),
+            createdBy.get("id"),
+            createdBy.get("username"),
+            assignedTo.get("id"),
+            assignedTo.get("username"),
+            task.get("createdAt"),
+            task.get("updatedAt"),
+            task.get("version")));
+    applyFilter(spec, task, query, cb);
+    if (sort.isSorted()) {
+      query.orderBy(QueryUtils.toOrders(sort, task, cb));
+    }
+    return entityManager.createQuery(query);
+  }
+
+  private long count(Specification<Task> spec) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> query = cb.createQuery(Long.class);
+    Root<Task> task = query.from(Task.class);
+    query.select(cb.count(task));
+    applyFilter(spec, task, query, cb);
+    return entityManager.createQuery(query).getSingleResult();
+  }
+
+  private static void applyFilter(
+      Specification<Task> spec, Root<Task> task, CriteriaQuery<?> query, CriteriaBuilder cb) {
+    if (spec == null) {
+      return;
+    }
+    Predicate predicate = spec.toPredicate(task, query, cb);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+  }
+}
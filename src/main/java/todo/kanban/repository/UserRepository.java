@@ -1,7 +1,11 @@
 package todo.kanban.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import todo.kanban.model.User;
 
@@ -12,4 +16,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
   boolean existsByUsername(String username);
 
   boolean existsByEmail(String email);
+
+  @Query(
+      "SELECT new todo.kanban.repository.UserSummary(u.id, u.username) FROM User u"
+          + " WHERE u.id IN :ids")
+  List<UserSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
 }
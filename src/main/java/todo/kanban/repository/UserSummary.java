@@ -0,0 +1,4 @@
+package todo.kanban.repository;
+
+/** Public identity of a user, as shown on tasks. Built by a constructor expression. */
+public record UserSummary(Long id, String username) {}
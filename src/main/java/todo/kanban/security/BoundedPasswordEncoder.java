@@ -0,0 +1,152 @@
+package todo.kanban.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import todo.kanban.exception.ServiceBusyException;
+
+/**
+ * Runs a slow password encoder on a small dedicated pool so a burst of logins cannot occupy every
+ * request thread with hashing.
+ *
+ * <p>Work beyond the pool waits in a bounded queue. When the queue is full the call fails at once,
+ * and a caller that waits longer than the timeout gives up; both surface as {@link
+ * ServiceBusyException}. {@link #upgradeEncoding} only inspects the stored hash and stays on the
+ * calling thread.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+  private final PasswordEncoder delegate;
+  private final ThreadPoolExecutor executor;
+  private final Duration timeout;
+  private final Timer encodeTimer;
+  private final Timer matchesTimer;
+  private final Timer waitTimer;
+  private final Counter queueFullRejections;
+  private final Counter timeoutRejections;
+
+  public BoundedPasswordEncoder(
+      PasswordEncoder delegate,
+      int threads,
+      int queueCapacity,
+      Duration timeout,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.timeout = timeout;
+
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              Thread thread =
+                  new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+    this.encodeTimer = hashTimer(meterRegistry, "encode");
+    this.matchesTimer = hashTimer(meterRegistry, "matches");
+    this.waitTimer =
+        Timer.builder("kanban.password.hash.wait")
+            .description("Time password hashing work waits for a free thread")
+            .register(meterRegistry);
+    Gauge.builder("kanban.password.hash.queue", executor, e -> e.getQueue().size())
+        .description("Password hashing work waiting for a thread")
+        .register(meterRegistry);
+    Gauge.builder("kanban.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+        .description("Threads currently hashing passwords")
+        .register(meterRegistry);
+    this.queueFullRejections = rejections(meterRegistry, "queue_full");
+    this.timeoutRejections = rejections(meterRegistry, "timeout");
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return submit(encodeTimer, () -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  private <T> T submit(Timer timer, Callable<T> work) {
+    long submittedAt = System.nanoTime();
+    Future<T> future;
+    try {
+      future =
+          executor.submit(
+              () -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(work);
+              });
+    } catch (RejectedExecutionException e) {
+      queueFullRejections.increment();
+      log.warn("Password hashing queue is full, rejecting request");
+      throw new ServiceBusyException("Too many sign-in attempts in progress. Try again shortly.");
+    }
+
+    try {
+      return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      timeoutRejections.increment();
+      log.warn("Password hashing did not finish within {}", timeout);
+      throw new ServiceBusyException("Too many sign-in attempts in progress. Try again shortly.");
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new ServiceBusyException("Interrupted while waiting for password hashing");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException("Password hashing failed", e.getCause());
+    }
+  }
+
+  private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+    return Timer.builder("kanban.password.hash")
+        .description("Time spent hashing or verifying a password")
+        .tag("operation", operation)
+        .register(meterRegistry);
+  }
+
+  private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+    return Counter.builder("kanban.password.hash.rejected")
+        .description("Password hashing requests turned away")
+        .tag("reason", reason)
+        .register(meterRegistry);
+  }
+}
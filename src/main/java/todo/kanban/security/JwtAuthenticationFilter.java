@@ -24,9 +24,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     String token = jwtTokenProvider.resolveToken(request);
 
-    if (token != null && jwtTokenProvider.validateToken(token)) {
-      Authentication auth = jwtTokenProvider.getAuthentication(token);
-      SecurityContextHolder.getContext().setAuthentication(auth);
+    if (token != null) {
+      // Principal comes from the signed claims, no user lookup per request
+      Authentication auth = jwtTokenProvider.authenticate(token);
+      if (auth != null) {
+        SecurityContextHolder.getContext().setAuthentication(auth);
+      }
     }
 
     filterChain.doFilter(request, response);
@@ -0,0 +1,18 @@
+package todo.kanban.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Authenticated user as asserted by the signed claims of a JWT. Built without touching the
+ * database, so it only carries what the token carries.
+ *
+ * @param userId User id from the {@code uid} claim, null for tokens issued before it existed
+ * @param username Username from the subject
+ */
+public record JwtPrincipal(Long userId, String username) implements AuthenticatedPrincipal {
+
+  @Override
+  public String getName() {
+    return username;
+  }
+}
@@ -1,29 +1,31 @@
 package todo.kanban.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import java.security.Key;
+import java.util.Collections;
 import java.util.Date;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
-import todo.kanban.service.UserDetailsServiceImpl;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class JwtUtils {
 
-  private final UserDetailsServiceImpl userDetailsService;
+  static final String USER_ID_CLAIM = "uid";
 
   @Value("${spring.security.jwt.secret:LongSecureRandomSecretForJWTAuthentication2025}")
   private String jwtSecret;
@@ -31,16 +33,24 @@ public class JwtUtils {
   @Value("${spring.security.jwt.expiration:86400000}")
   private long jwtExpirationMs;
 
+  @Value("${spring.security.jwt.verified-cache-size:10000}")
+  private long verifiedCacheSize = 10_000;
+
   private Key signingKey;
 
+  /** Tokens whose signature has already been checked, each kept until its own expiry */
+  private Cache<String, VerifiedToken> verifiedTokens;
+
   @PostConstruct
   public void init() {
     // Initialize signing key once at startup
     signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    verifiedTokens =
+        Caffeine.newBuilder().maximumSize(verifiedCacheSize).expireAfter(new UntilExpiry()).build();
     log.info("JWT signing key initialized");
   }
 
-  public String generateToken(String username) {
+  public String generateToken(Long userId, String username) {
     log.info("Generating JWT token for user: {}", username);
     Date now = new Date();
     Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
@@ -48,6 +58,7 @@ public class JwtUtils {
     String token =
         Jwts.builder()
             .setSubject(username)
+            .claim(USER_ID_CLAIM, userId)
             .setIssuedAt(now)
             .setExpiration(expiryDate)
             .signWith(signingKey, SignatureAlgorithm.HS256)
@@ -57,37 +68,37 @@ public class JwtUtils {
     return token;
   }
 
-  public String getUsernameFromToken(String token) {
-    try {
-      Claims claims =
-          Jwts.parserBuilder().setSigningKey(signingKey).build().parseClaimsJws(token).getBody();
-
-      String username = claims.getSubject();
-      log.debug("Username extracted from token: {}", username);
-      return username;
-    } catch (Exception e) {
-      log.error("Could not extract username from token", e);
+  /**
+   * Verify a token and build its principal from the signed claims. The signature is checked at
+   * most once per token, later calls are answered from the verified-token cache until the token
+   * expires, and no user lookup is made.
+   *
+   * @param token Compact JWT
+   * @return Authentication for the token, or null if it is invalid or expired
+   */
+  public Authentication authenticate(String token) {
+    VerifiedToken verified = verifiedTokens.getIfPresent(token);
+    if (verified == null) {
+      verified = verify(token);
+      if (verified == null) {
+        return null;
+      }
+      verifiedTokens.put(token, verified);
+    } else if (verified.expiresAt() <= System.currentTimeMillis()) {
+      // Caffeine expiry is lazy, never trust an entry past the token's own exp
       return null;
     }
+    return new UsernamePasswordAuthenticationToken(
+        verified.principal(), token, Collections.emptyList());
   }
 
-  public boolean validateToken(String token) {
-    try {
-      Jwts.parserBuilder().setSigningKey(signingKey).build().parseClaimsJws(token);
-
-      log.debug("Token validated successfully");
-      return true;
-    } catch (Exception e) {
-      log.error("Token validation failed", e);
-      return false;
-    }
+  public String getUsernameFromToken(String token) {
+    Authentication authentication = authenticate(token);
+    return authentication == null ? null : authentication.getName();
   }
 
-  public Authentication getAuthentication(String token) {
-    log.debug("Getting authentication for token");
-    UserDetails userDetails = userDetailsService.loadUserByUsername(getUsernameFromToken(token));
-    log.debug("User details loaded for: {}", userDetails.getUsername());
-    return new UsernamePasswordAuthenticationToken(userDetails, "", userDetails.getAuthorities());
+  public boolean validateToken(String token) {
+    return authenticate(token) != null;
   }
 
   public String resolveToken(HttpServletRequest request) {
@@ -101,4 +112,46 @@ public class JwtUtils {
     }
     return null;
   }
+
+  private VerifiedToken verify(String token) {
+    try {
+      Claims claims =
+          Jwts.parserBuilder().setSigningKey(signingKey).build().parseClaimsJws(token).getBody();
+      if (!StringUtils.hasText(claims.getSubject()) || claims.getExpiration() == null) {
+        log.debug("Token rejected: missing subject or expiration");
+        return null;
+      }
+      Number userId = claims.get(USER_ID_CLAIM, Number.class);
+      JwtPrincipal principal =
+          new JwtPrincipal(userId == null ? null : userId.longValue(), claims.getSubject());
+      log.debug("Token validated for user: {}", principal.username());
+      return new VerifiedToken(principal, claims.getExpiration().getTime());
+    } catch (JwtException | IllegalArgumentException e) {
+      log.debug("Token validation failed: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  private record VerifiedToken(JwtPrincipal principal, long expiresAt) {}
+
+  private static final class UntilExpiry implements Expiry<String, VerifiedToken> {
+
+    @Override
+    public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+      long remainingMs = verified.expiresAt() - System.currentTimeMillis();
+      return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        String token, VerifiedToken verified, long currentTime, long currentDuration) {
+      return expireAfterCreate(token, verified, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(
+        String token, VerifiedToken verified, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
 }
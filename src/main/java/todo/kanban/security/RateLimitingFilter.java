@@ -1,26 +1,120 @@
 package todo.kanban.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
 import io.github.bucket4j.Refill;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.RemoteBucketBuilder;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+/**
+ * Token-bucket rate limiting per authenticated user, or per client address for anonymous calls.
+ *
+ * <p>Buckets live in a bounded Caffeine cache and are dropped once idle for a full refill period,
+ * when they would be full again anyway, so rotating client addresses cannot grow the heap. The
+ * client address is {@link HttpServletRequest#getRemoteAddr()}; put the application behind a
+ * proxy with {@code server.forward-headers-strategy} set rather than trusting X-Forwarded-For
+ * here.
+ *
+ * <p>With a shared {@link ProxyManager} configured, every node draws from the same buckets. Each
+ * node then consumes up to {@code kanban.rate-limit.sync-tokens} locally before writing back, so
+ * most requests make no remote call at the price of that much overdraft per node.
+ */
 @Component
 @Slf4j
 public class RateLimitingFilter extends OncePerRequestFilter {
 
-  private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+  static final String LIMIT_HEADER = "RateLimit-Limit";
+  static final String REMAINING_HEADER = "RateLimit-Remaining";
+  static final String RESET_HEADER = "RateLimit-Reset";
+
+  /** Tokens taken per request, first match wins; anything unlisted costs one token */
+  private static final List<EndpointCost> COSTS =
+      List.of(
+          new EndpointCost(null, "/api/tasks/batch", 10),
+          new EndpointCost(HttpMethod.GET, "/api/tasks/search/**", 5),
+          new EndpointCost(HttpMethod.POST, "/graphql", 5),
+          new EndpointCost(HttpMethod.POST, "/api/auth/**", 5),
+          new EndpointCost(HttpMethod.GET, "/api/tasks", 2),
+          new EndpointCost(HttpMethod.GET, "/api/tasks/*/*/**", 2));
+
+  private final AntPathMatcher pathMatcher = new AntPathMatcher();
+  private final long capacity;
+  private final Bandwidth limit;
+  private final Cache<String, Bucket> buckets;
+  private final BucketConfiguration bucketConfiguration;
+  private final RemoteBucketBuilder<String> remoteBuckets;
+  private final Counter userRejections;
+  private final Counter addressRejections;
+
+  public RateLimitingFilter(
+      @Value("${kanban.rate-limit.capacity:100}") long capacity,
+      @Value("${kanban.rate-limit.period:1m}") Duration period,
+      @Value("${kanban.rate-limit.max-buckets:100000}") long maxBuckets,
+      Optional<ProxyManager<String>> sharedBuckets,
+      @Value("${kanban.rate-limit.sync-tokens:10}") long syncTokens,
+      @Value("${kanban.rate-limit.sync-interval:500ms}") Duration syncInterval,
+      MeterRegistry meterRegistry) {
+    this.capacity = capacity;
+    this.limit = Bandwidth.classic(capacity, Refill.greedy(capacity, period));
+    this.bucketConfiguration = BucketConfiguration.builder().addLimit(limit).build();
+    this.remoteBuckets =
+        sharedBuckets
+            .map(ProxyManager::builder)
+            .map(
+                builder ->
+                    syncTokens > 0
+                        ? builder.withOptimization(
+                            Optimizations.delaying(new DelayParameters(syncTokens, syncInterval)))
+                        : builder)
+            .orElse(null);
+    this.buckets =
+        Caffeine.newBuilder()
+            .maximumSize(maxBuckets)
+            .expireAfterAccess(period)
+            .recordStats()
+            // evict on the calling thread so the bound holds even under a flood of new keys
+            .executor(Runnable::run)
+            .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rateLimitBuckets");
+    Gauge.builder("kanban.rate_limit.buckets", buckets, Cache::estimatedSize)
+        .description("Rate limit buckets currently held")
+        .register(meterRegistry);
+    Gauge.builder("kanban.rate_limit.buckets.max", () -> maxBuckets)
+        .description("Upper bound on rate limit buckets")
+        .register(meterRegistry);
+    this.userRejections = rejections(meterRegistry, "user");
+    this.addressRejections = rejections(meterRegistry, "address");
+  }
 
   @Override
   protected void doFilterInternal(
@@ -35,13 +129,22 @@ public class RateLimitingFilter extends OncePerRequestFilter {
       return;
     }
 
-    String clientIP = getClientIP(request);
-    Bucket bucket = buckets.computeIfAbsent(clientIP, this::createNewBucket);
+    String username = currentUsername();
+    String key = username != null ? "user:" + username : "ip:" + request.getRemoteAddr();
+    Bucket bucket = buckets.get(key, this::createNewBucket);
+    ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(costOf(request));
+
+    response.setHeader(LIMIT_HEADER, String.valueOf(capacity));
+    response.setHeader(REMAINING_HEADER, String.valueOf(probe.getRemainingTokens()));
+    response.setHeader(RESET_HEADER, String.valueOf(toSeconds(probe.getNanosToWaitForReset())));
 
-    if (bucket.tryConsume(1)) {
+    if (probe.isConsumed()) {
       filterChain.doFilter(request, response);
     } else {
-      log.warn("Rate limit exceeded for IP: {}", clientIP);
+      log.warn("Rate limit exceeded for {}", key);
+      (username != null ? userRejections : addressRejections).increment();
+      response.setHeader(
+          "Retry-After", String.valueOf(toSeconds(probe.getNanosToWaitForRefill())));
       response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
       response.setContentType("application/json");
       response
@@ -50,17 +153,52 @@ public class RateLimitingFilter extends OncePerRequestFilter {
     }
   }
 
-  private Bucket createNewBucket(String ip) {
-    // 100 requests per minute
-    Bandwidth limit = Bandwidth.classic(100, Refill.greedy(100, Duration.ofMinutes(1)));
+  /**
+   * Tokens a request takes from its bucket, never more than the bucket can hold
+   *
+   * @param request Incoming request
+   * @return Cost in tokens
+   */
+  long costOf(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    for (EndpointCost cost : COSTS) {
+      if ((cost.method() == null || cost.method().matches(request.getMethod()))
+          && pathMatcher.match(cost.pattern(), path)) {
+        return Math.min(cost.tokens(), capacity);
+      }
+    }
+    return 1;
+  }
+
+  private Bucket createNewBucket(String key) {
+    if (remoteBuckets != null) {
+      // Local entry is only a handle, the tokens live in the shared store
+      return remoteBuckets.build(key, bucketConfiguration);
+    }
     return Bucket.builder().addLimit(limit).build();
   }
 
-  private String getClientIP(HttpServletRequest request) {
-    String xForwardedForHeader = request.getHeader("X-Forwarded-For");
-    if (xForwardedForHeader != null) {
-      return xForwardedForHeader.split(",")[0].trim();
+  private static String currentUsername() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null
+        || !authentication.isAuthenticated()
+        || authentication instanceof AnonymousAuthenticationToken) {
+      return null;
     }
-    return request.getRemoteAddr();
+    return authentication.getName();
+  }
+
+  private static long toSeconds(long nanos) {
+    // Round up so clients never retry a moment too early
+    return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
   }
+
+  private static Counter rejections(MeterRegistry meterRegistry, String keyType) {
+    return Counter.builder("kanban.rate_limit.rejected")
+        .description("Requests rejected by the rate limiter")
+        .tag("key", keyType)
+        .register(meterRegistry);
+  }
+
+  private record EndpointCost(HttpMethod method, String pattern, long tokens) {}
 }
@@ -31,7 +31,9 @@ public class AuthService {
               .findByUsername("admin")
               .orElse(User.builder().id(0L).username("admin").build());
 
-      String token = jwtTokenProvider.generateToken("admin");
+      // Without a stored admin row there is no id to vouch for, requests fall back to a lookup
+      Long adminId = adminUser.getId() == 0L ? null : adminUser.getId();
+      String token = jwtTokenProvider.generateToken(adminId, "admin");
       return new AuthDTO.TokenResponse(token, "Bearer", adminUser.getId(), adminUser.getUsername());
     }
 
@@ -40,8 +42,8 @@ public class AuthService {
             new UsernamePasswordAuthenticationToken(
                 loginRequest.getUsername(), loginRequest.getPassword()));
 
-    String token = jwtTokenProvider.generateToken(loginRequest.getUsername());
     User user = userRepository.findByUsername(loginRequest.getUsername()).orElseThrow();
+    String token = jwtTokenProvider.generateToken(user.getId(), user.getUsername());
 
     return new AuthDTO.TokenResponse(token, "Bearer", user.getId(), user.getUsername());
   }
@@ -64,7 +66,7 @@ public class AuthService {
 
     userRepository.save(user);
 
-    String token = jwtTokenProvider.generateToken(registerRequest.getUsername());
+    String token = jwtTokenProvider.generateToken(user.getId(), user.getUsername());
 
     return new AuthDTO.TokenResponse(token, "Bearer", user.getId(), user.getUsername());
   }
@@ -1,25 +1,37 @@
 package todo.kanban.service;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import todo.kanban.cache.TaskQueryCache;
 import todo.kanban.dto.TaskDTO;
+import todo.kanban.exception.BatchOperationException;
 import todo.kanban.exception.ConflictException;
 import todo.kanban.exception.IllegalOperationException;
 import todo.kanban.exception.ResourceNotFoundException;
@@ -28,20 +40,34 @@ import todo.kanban.model.Task;
 import todo.kanban.model.TaskPriority;
 import todo.kanban.model.TaskStatus;
 import todo.kanban.model.User;
+import todo.kanban.repository.TaskChanges;
+import todo.kanban.repository.TaskCursor;
 import todo.kanban.repository.TaskRepository;
+import todo.kanban.repository.TaskSpecifications;
+import todo.kanban.repository.TaskUpdate;
+import todo.kanban.repository.TaskView;
 import todo.kanban.repository.UserRepository;
+import todo.kanban.security.JwtPrincipal;
+import todo.kanban.websocket.TaskEvent;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TaskService {
 
+  // Each has an index to page through it, see V2 and V8
   private static final List<String> VALID_SORT_PROPERTIES =
-      Arrays.asList("id", "title", "status", "priority", "createdAt", "updatedAt", "version");
+      Arrays.asList("id", "title", "status", "priority", "createdAt", "updatedAt");
+  private static final int MAX_SCROLL_SIZE = 100;
+
+  // Replicas may not have replayed a recent write; their answer must not reach the shared caches
+  private static final String STALE_READ =
+      "T(todo.kanban.datasource.ReplicaRoutingDataSource).lastReadMayBeStale()";
   private final TaskRepository taskRepository;
   private final UserRepository userRepository;
   private final Mapper taskMapper;
   private final WebSocketService webSocketService;
+  private final TaskQueryCache taskQueryCache;
 
   /**
    * Get all tasks with sorting, pagination, and filtering
@@ -50,7 +76,11 @@ public class TaskService {
    * @param request HTTP request for logging
    * @return Page of task DTOs
    */
-  @Cacheable(value = "tasksList", key = "#pageable.pageNumber + #pageable.pageSize")
+  @Cacheable(
+      value = "tasksList",
+      key = "T(todo.kanban.cache.TaskQueryKey).all(#pageable)",
+      unless = STALE_READ)
+  @Transactional(readOnly = true)
   public Page<TaskDTO.Response> getAllTasks(Pageable pageable, HttpServletRequest request) {
     log.info("Getting all tasks");
 
@@ -63,7 +93,7 @@ public class TaskService {
     log.debug("Using pageable: {}", pageable);
 
     try {
-      Page<Task> tasks = taskRepository.findAll(pageable);
+      Page<TaskView> tasks = taskRepository.findViews(null, pageable);
       log.info("Found {} tasks", tasks.getTotalElements());
       return tasks.map(taskMapper::toDto);
     } catch (Exception e) {
@@ -82,6 +112,13 @@ public class TaskService {
    * @param pageable Pagination parameters
    * @return Page of tasks matching criteria
    */
+  @Cacheable(
+      value = "tasksList",
+      key =
+          "T(todo.kanban.cache.TaskQueryKey).search(#title, #status, #priority, #assignedTo,"
+              + " #pageable)",
+      unless = STALE_READ)
+  @Transactional(readOnly = true)
   public Page<TaskDTO.Response> searchTasks(
       String title, TaskStatus status, TaskPriority priority, Long assignedTo, Pageable pageable) {
     log.info(
@@ -93,39 +130,49 @@ public class TaskService {
 
     pageable = validateAndAdjustPageable(pageable);
 
-    Specification<Task> spec = Specification.where(null);
-
-    if (title != null && !title.isBlank()) {
-      spec =
-          spec.and(
-              (root, query, cb) ->
-                  cb.like(cb.lower(root.get("title")), "%" + title.toLowerCase() + "%"));
-    }
+    Specification<Task> spec = TaskSpecifications.search(title, status, priority, assignedTo);
 
-    if (status != null) {
-      spec = spec.and((root, query, cb) -> cb.equal(root.get("status"), status));
-    }
+    Page<TaskView> tasks = taskRepository.findViews(spec, pageable);
+    log.info("Found {} tasks matching criteria", tasks.getTotalElements());
 
-    if (priority != null) {
-      spec = spec.and((root, query, cb) -> cb.equal(root.get("priority"), priority));
-    }
+    return tasks.map(taskMapper::toDto);
+  }
 
-    if (assignedTo != null) {
-      spec =
-          spec.and(
-              (root, query, cb) -> {
-                if (assignedTo == 0) {
-                  return cb.isNull(root.get("assignedTo"));
-                } else {
-                  return cb.equal(root.get("assignedTo").get("id"), assignedTo);
-                }
-              });
-    }
+  /**
+   * Filter tasks reading only the columns a client asked for. Results are partial, so unlike the
+   * other listings they are not cached.
+   *
+   * @param status Optional status filter
+   * @param priority Optional priority filter
+   * @param assignedTo Optional user assignment filter, 0 for unassigned tasks
+   * @param columns Names of the {@link TaskView} components to read, the id is always read
+   * @param pageable Page, sorted newest first
+   * @param countTotal Whether the total count is needed
+   * @return Page of tasks with only the named fields set
+   */
+  @Transactional(readOnly = true)
+  public Page<TaskDTO.Response> queryTasks(
+      TaskStatus status,
+      TaskPriority priority,
+      Long assignedTo,
+      Set<String> columns,
+      Pageable pageable,
+      boolean countTotal) {
+    log.info(
+        "Querying {} of tasks with status: {}, priority: {}, assignedTo: {}",
+        columns,
+        status,
+        priority,
+        assignedTo);
 
-    Page<Task> tasks = taskRepository.findAll(spec, pageable);
-    log.info("Found {} tasks matching criteria", tasks.getTotalElements());
+    pageable =
+        PageRequest.of(
+            pageable.getPageNumber(),
+            pageable.getPageSize(),
+            Sort.by(Sort.Direction.DESC, "createdAt"));
+    Specification<Task> spec = TaskSpecifications.search(null, status, priority, assignedTo);
 
-    return tasks.map(taskMapper::toDto);
+    return taskRepository.findViews(spec, columns, pageable, countTotal).map(taskMapper::toDto);
   }
 
   /**
@@ -134,11 +181,14 @@ public class TaskService {
    * @param id Task ID
    * @return Task DTO
    */
-  @Cacheable(value = "tasks", key = "#id")
+  @Cacheable(value = "tasks", key = "#id", unless = STALE_READ)
+  @Transactional(readOnly = true)
   public TaskDTO.Response getTaskById(Long id) {
     log.info("Getting task by id: {}", id);
-    Task task = findTaskById(id);
-    return taskMapper.toDto(task);
+    return taskRepository
+        .findViewById(id)
+        .map(taskMapper::toDto)
+        .orElseThrow(() -> new ResourceNotFoundException("Task not found with id: " + id));
   }
 
   /**
@@ -184,6 +234,7 @@ public class TaskService {
       log.info("Task saved with id: {}", savedTask.getId());
 
       TaskDTO.Response response = taskMapper.toDto(savedTask);
+      taskQueryCache.evictMatching(response);
       webSocketService.notifyTaskCreated(response);
 
       return response;
@@ -198,53 +249,39 @@ public class TaskService {
   }
 
   /**
-   * Update a task
+   * Update a task with a single conditional UPDATE. Title, description, status and priority are
+   * written when given; the assignment is always written, so a missing assignee clears it.
    *
    * @param id Task ID
-   * @param taskRequest Task update request
+   * @param taskRequest Task update request, with the version the client last saw if known
    * @return Updated task DTO
    */
   @Transactional
   @CachePut(value = "tasks", key = "#id")
-  @CacheEvict(value = "tasksList", allEntries = true)
   public TaskDTO.Response updateTask(Long id, TaskDTO.Request taskRequest) {
     log.info("Updating task with id: {}, request: {}", id, taskRequest);
     try {
-      Task task = findTaskById(id);
-      log.info("Found task to update: {}", task.getTitle());
+      // Validate request data, the status transition is checked by the update itself
+      validateTaskRequest(taskRequest, null);
 
-      // Validate request data and task status transition
-      validateTaskRequest(taskRequest, task);
-
-      taskMapper.updateEntityFromDto(taskRequest, task);
-
-      if (taskRequest.getAssignedTo() != null) {
-        User assignedUser =
-            userRepository
-                .findById(taskRequest.getAssignedTo())
-                .orElseThrow(
-                    () ->
-                        new ResourceNotFoundException(
-                            "User not found with id: " + taskRequest.getAssignedTo()));
-        task.setAssignedTo(assignedUser);
-        log.info("Updated assigned user to: {}", assignedUser.getUsername());
-      } else if (task.getAssignedTo() != null) {
-        // Clear assignment if null is explicitly provided
-        task.setAssignedTo(null);
-        log.info("Cleared task assignment");
+      TaskChanges changes = new TaskChanges();
+      if (taskRequest.getTitle() != null) {
+        changes.title(taskRequest.getTitle());
+      }
+      if (taskRequest.getDescription() != null) {
+        changes.description(taskRequest.getDescription());
       }
+      if (taskRequest.getStatus() != null) {
+        changes.status(taskRequest.getStatus());
+      }
+      if (taskRequest.getPriority() != null) {
+        changes.priority(taskRequest.getPriority());
+      }
+      changes.assignedTo(taskRequest.getAssignedTo());
 
-      Task updatedTask = taskRepository.save(task);
+      TaskDTO.Response response = applyChanges(id, taskRequest.getVersion(), changes);
       log.info("Task updated successfully");
-
-      TaskDTO.Response response = taskMapper.toDto(updatedTask);
-      webSocketService.notifyTaskUpdated(response);
-
       return response;
-    } catch (OptimisticLockingFailureException e) {
-      log.error("Optimistic locking failure when updating task", e);
-      throw new ConflictException(
-          "Task was updated by another user. Please refresh and try again.");
     } catch (Exception e) {
       log.error("Error updating task: {}", e.getMessage(), e);
       throw e;
@@ -252,83 +289,44 @@ public class TaskService {
   }
 
   /**
-   * Partially update a task
+   * Partially update a task with a single conditional UPDATE of the changed columns
    *
    * @param id Task ID
-   * @param updates Map of fields to update
+   * @param updates Map of fields to update, optionally with the version the client last saw
    * @return Updated task DTO
    */
   @Transactional
   @CachePut(value = "tasks", key = "#id")
-  @CacheEvict(value = "tasksList", allEntries = true)
   public TaskDTO.Response patchTask(Long id, Map<String, Object> updates) {
     log.info("Patching task with id: {}, updates: {}", id, updates);
 
     try {
-      Task task = findTaskById(id);
-      log.info("Found task to patch: {}", task.getTitle());
+      // Validate updates, the status transition is checked by the update itself
+      validatePatchUpdates(updates, null);
 
-      // Validate updates
-      validatePatchUpdates(updates, task);
-
-      // Handle updates based on the patch
+      TaskChanges changes = new TaskChanges();
       if (updates.containsKey("title") && updates.get("title") != null) {
-        String title = (String) updates.get("title");
-        task.setTitle(title);
-        log.info("Updated title to: {}", task.getTitle());
+        changes.title((String) updates.get("title"));
       }
-
       if (updates.containsKey("description")) {
-        task.setDescription((String) updates.get("description"));
-        log.info("Updated description");
+        changes.description((String) updates.get("description"));
       }
-
       if (updates.containsKey("status") && updates.get("status") != null) {
-        TaskStatus newStatus = TaskStatus.valueOf((String) updates.get("status"));
-
-        // Check if status transition is valid
-        if (isValidStatusTransition(task.getStatus(), newStatus)) {
-          throw new IllegalOperationException(
-              "Invalid status transition from " + task.getStatus() + " to " + newStatus);
-        }
-
-        task.setStatus(newStatus);
-        log.info("Updated status to: {}", task.getStatus());
+        changes.status(TaskStatus.valueOf((String) updates.get("status")));
       }
-
       if (updates.containsKey("priority") && updates.get("priority") != null) {
-        task.setPriority(TaskPriority.valueOf((String) updates.get("priority")));
-        log.info("Updated priority to: {}", task.getPriority());
+        changes.priority(TaskPriority.valueOf((String) updates.get("priority")));
       }
-
       if (updates.containsKey("assignedTo")) {
-        if (updates.get("assignedTo") == null) {
-          task.setAssignedTo(null);
-          log.info("Removed assignment");
-        } else {
-          Long assignedToId = ((Number) updates.get("assignedTo")).longValue();
-          User assignedUser =
-              userRepository
-                  .findById(assignedToId)
-                  .orElseThrow(
-                      () ->
-                          new ResourceNotFoundException("User not found with id: " + assignedToId));
-          task.setAssignedTo(assignedUser);
-          log.info("Updated assigned user to: {}", assignedUser.getUsername());
-        }
+        Object assignedTo = updates.get("assignedTo");
+        changes.assignedTo(assignedTo == null ? null : ((Number) assignedTo).longValue());
       }
+      Long expectedVersion =
+          updates.get("version") instanceof Number version ? version.longValue() : null;
 
-      Task updatedTask = taskRepository.save(task);
+      TaskDTO.Response response = applyChanges(id, expectedVersion, changes);
       log.info("Task patched successfully");
-
-      TaskDTO.Response response = taskMapper.toDto(updatedTask);
-      webSocketService.notifyTaskUpdated(response);
-
       return response;
-    } catch (OptimisticLockingFailureException e) {
-      log.error("Optimistic locking failure when patching task", e);
-      throw new ConflictException(
-          "Task was updated by another user. Please refresh and try again.");
     } catch (Exception e) {
       log.error("Error patching task: {}", e.getMessage(), e);
       throw e;
@@ -341,9 +339,7 @@ public class TaskService {
    * @param id Task ID
    */
   @Transactional
-  @CacheEvict(
-      value = {"tasks", "tasksList"},
-      allEntries = true)
+  @CacheEvict(value = "tasks", key = "#id")
   public void deleteTask(Long id) {
     log.info("Deleting task with id: {}", id);
     try {
@@ -356,10 +352,13 @@ public class TaskService {
             "Cannot delete a task that is in progress. Please move it to another status first.");
       }
 
+      TaskDTO.Response previous = taskMapper.toDto(task);
       taskRepository.delete(task);
       log.info("Task deleted successfully");
 
-      webSocketService.notifyTaskDeleted(id);
+      taskQueryCache.evictMatching(previous);
+
+      webSocketService.notifyTaskDeleted(previous);
     } catch (OptimisticLockingFailureException e) {
       log.error("Optimistic locking failure when deleting task", e);
       throw new ConflictException(
@@ -373,6 +372,156 @@ public class TaskService {
     }
   }
 
+  /**
+   * Create several tasks in one transaction. Inserts are sent as JDBC batches; if any item fails
+   * nothing is created.
+   *
+   * @param requests Task creation requests
+   * @return One result per request, in request order
+   * @throws BatchOperationException naming the first item that failed
+   */
+  @Transactional
+  public TaskDTO.BatchResponse createTasks(List<TaskDTO.Request> requests) {
+    log.info("Creating {} tasks in one batch", requests.size());
+    checkBatchSize(requests.size());
+
+    User currentUser = getCurrentUser();
+    Map<Long, User> assignees =
+        findUsersById(requests.stream().map(TaskDTO.Request::getAssignedTo).toList());
+
+    List<Task> tasks = new ArrayList<>(requests.size());
+    for (int i = 0; i < requests.size(); i++) {
+      TaskDTO.Request taskRequest = requests.get(i);
+      try {
+        validateTaskRequest(taskRequest, null);
+        Task task = taskMapper.toEntity(taskRequest, currentUser);
+        if (taskRequest.getAssignedTo() != null) {
+          task.setAssignedTo(userIn(assignees, taskRequest.getAssignedTo()));
+        }
+        tasks.add(task);
+      } catch (RuntimeException e) {
+        throw new BatchOperationException(i, null, e);
+      }
+    }
+
+    taskRepository.saveAll(tasks);
+    flushBatch(List.of());
+    log.info("Created {} tasks", tasks.size());
+
+    List<TaskDTO.Response> created = tasks.stream().map(taskMapper::toDto).toList();
+    taskQueryCache.evictMatching(created.toArray(TaskDTO.Response[]::new));
+    webSocketService.notifyTasks(created.stream().map(TaskEvent::created).toList());
+
+    return batchResponse(created, TaskDTO.BatchOutcome.CREATED);
+  }
+
+  /**
+   * Partially update several tasks in one transaction, each item with the semantics of {@link
+   * #patchTask}. If any item fails nothing is changed.
+   *
+   * @param items Patches, optionally carrying the version the client last saw
+   * @return One result per item, in request order
+   * @throws BatchOperationException naming the first item that failed or conflicted
+   */
+  @Transactional
+  public TaskDTO.BatchResponse patchTasks(List<TaskDTO.PatchItem> items) {
+    log.info("Patching {} tasks in one batch", items.size());
+    checkBatchSize(items.size());
+
+    List<Long> ids = items.stream().map(TaskDTO.PatchItem::getId).toList();
+    Map<Long, Task> tasks = findTasksById(ids);
+    Map<Long, User> assignees =
+        findUsersById(
+            items.stream()
+                .map(item -> item.getUpdates().get("assignedTo"))
+                .filter(Number.class::isInstance)
+                .map(id -> ((Number) id).longValue())
+                .toList());
+
+    List<TaskDTO.Response> previous = new ArrayList<>(items.size());
+    for (int i = 0; i < items.size(); i++) {
+      TaskDTO.PatchItem item = items.get(i);
+      try {
+        Task task = taskIn(tasks, item.getId());
+        if (item.getVersion() != null && !item.getVersion().equals(task.getVersion())) {
+          throw new ConflictException(
+              "Task was updated by another user. Please refresh and try again.");
+        }
+        previous.add(taskMapper.toDto(task));
+        validatePatchUpdates(item.getUpdates(), task);
+        applyPatch(task, item.getUpdates(), id -> userIn(assignees, id));
+      } catch (RuntimeException e) {
+        throw new BatchOperationException(i, item.getId(), e);
+      }
+    }
+
+    flushBatch(ids);
+    log.info("Patched {} tasks", items.size());
+
+    List<TaskDTO.Response> updated =
+        ids.stream().map(id -> taskMapper.toDto(tasks.get(id))).toList();
+    List<TaskDTO.Response> changed = new ArrayList<>(previous);
+    changed.addAll(updated);
+    taskQueryCache.evictMatching(changed.toArray(TaskDTO.Response[]::new));
+    taskQueryCache.evictTasks(tasks.keySet());
+    webSocketService.notifyTasks(
+        IntStream.range(0, updated.size())
+            .mapToObj(i -> TaskEvent.updated(previous.get(i), updated.get(i)))
+            .toList());
+
+    return batchResponse(updated, TaskDTO.BatchOutcome.UPDATED);
+  }
+
+  /**
+   * Delete several tasks in one transaction, each item with the rules of {@link #deleteTask}. If
+   * any item fails nothing is deleted.
+   *
+   * @param ids Task IDs
+   * @return One result per id, in request order
+   * @throws BatchOperationException naming the first item that failed
+   */
+  @Transactional
+  public TaskDTO.BatchResponse deleteTasks(List<Long> ids) {
+    log.info("Deleting {} tasks in one batch", ids.size());
+    checkBatchSize(ids.size());
+
+    Map<Long, Task> tasks = findTasksById(ids);
+    List<TaskDTO.Response> previous = new ArrayList<>(ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      try {
+        Task task = taskIn(tasks, ids.get(i));
+        if (task.getStatus() == TaskStatus.IN_PROGRESS) {
+          throw new IllegalOperationException(
+              "Cannot delete a task that is in progress. Please move it to another status first.");
+        }
+        previous.add(taskMapper.toDto(task));
+      } catch (RuntimeException e) {
+        throw new BatchOperationException(i, ids.get(i), e);
+      }
+    }
+
+    taskRepository.deleteAll(tasks.values());
+    flushBatch(ids);
+    log.info("Deleted {} tasks", tasks.size());
+
+    taskQueryCache.evictMatching(previous.toArray(TaskDTO.Response[]::new));
+    taskQueryCache.evictTasks(tasks.keySet());
+    webSocketService.notifyTasks(previous.stream().map(TaskEvent::deleted).toList());
+
+    return TaskDTO.BatchResponse.builder()
+        .results(
+            IntStream.range(0, ids.size())
+                .mapToObj(
+                    i ->
+                        TaskDTO.BatchItem.builder()
+                            .index(i)
+                            .id(ids.get(i))
+                            .outcome(TaskDTO.BatchOutcome.DELETED)
+                            .build())
+                .toList())
+        .build();
+  }
+
   /**
    * Get tasks assigned to a specific user
    *
@@ -380,6 +529,11 @@ public class TaskService {
    * @param pageable Pagination parameters
    * @return Page of tasks assigned to the user
    */
+  @Cacheable(
+      value = "tasksList",
+      key = "T(todo.kanban.cache.TaskQueryKey).assignedTo(#userId, #pageable)",
+      unless = STALE_READ)
+  @Transactional(readOnly = true)
   public Page<TaskDTO.Response> getTasksAssignedToUser(Long userId, Pageable pageable) {
     log.info("Getting tasks assigned to user with id: {}", userId);
 
@@ -390,7 +544,8 @@ public class TaskService {
 
     pageable = validateAndAdjustPageable(pageable);
 
-    Page<Task> tasks = taskRepository.findByAssignedToId(userId, pageable);
+    Page<TaskView> tasks =
+        taskRepository.findViews(TaskSpecifications.assignedTo(userId), pageable);
     log.info("Found {} tasks assigned to user {}", tasks.getTotalElements(), user.getUsername());
 
     return tasks.map(taskMapper::toDto);
@@ -403,6 +558,11 @@ public class TaskService {
    * @param pageable Pagination parameters
    * @return Page of tasks created by the user
    */
+  @Cacheable(
+      value = "tasksList",
+      key = "T(todo.kanban.cache.TaskQueryKey).createdBy(#userId, #pageable)",
+      unless = STALE_READ)
+  @Transactional(readOnly = true)
   public Page<TaskDTO.Response> getTasksCreatedByUser(Long userId, Pageable pageable) {
     log.info("Getting tasks created by user with id: {}", userId);
 
@@ -413,12 +573,150 @@ public class TaskService {
 
     pageable = validateAndAdjustPageable(pageable);
 
-    Page<Task> tasks = taskRepository.findByCreatedById(userId, pageable);
+    Page<TaskView> tasks =
+        taskRepository.findViews(TaskSpecifications.createdBy(userId), pageable);
     log.info("Found {} tasks created by user {}", tasks.getTotalElements(), user.getUsername());
 
     return tasks.map(taskMapper::toDto);
   }
 
+  /**
+   * Get all tasks in keyset order
+   *
+   * @param cursor Continuation token from the previous page, null for the first page
+   * @param size Page size
+   * @param sortBy Keyset column, updatedAt or createdAt, ignored when a cursor is given
+   * @param sortDir Sort direction, ignored when a cursor is given
+   * @return One page without a total count
+   */
+  @Transactional(readOnly = true)
+  public TaskDTO.CursorPage scrollAllTasks(String cursor, int size, String sortBy, String sortDir) {
+    log.info("Scrolling all tasks");
+    return scroll(null, cursor, size, sortBy, sortDir);
+  }
+
+  /**
+   * Search tasks by criteria in keyset order
+   *
+   * @param title Optional title search term
+   * @param status Optional status filter
+   * @param priority Optional priority filter
+   * @param assignedTo Optional user assignment filter
+   * @param cursor Continuation token from the previous page, null for the first page
+   * @param size Page size
+   * @param sortBy Keyset column, updatedAt or createdAt, ignored when a cursor is given
+   * @param sortDir Sort direction, ignored when a cursor is given
+   * @return One page without a total count
+   */
+  @Transactional(readOnly = true)
+  public TaskDTO.CursorPage scrollSearchTasks(
+      String title,
+      TaskStatus status,
+      TaskPriority priority,
+      Long assignedTo,
+      String cursor,
+      int size,
+      String sortBy,
+      String sortDir) {
+    log.info(
+        "Scrolling tasks with title: {}, status: {}, priority: {}, assignedTo: {}",
+        title,
+        status,
+        priority,
+        assignedTo);
+    return scroll(
+        TaskSpecifications.search(title, status, priority, assignedTo),
+        cursor,
+        size,
+        sortBy,
+        sortDir);
+  }
+
+  /**
+   * Get tasks assigned to a specific user in keyset order
+   *
+   * @param userId User ID
+   * @param cursor Continuation token from the previous page, null for the first page
+   * @param size Page size
+   * @param sortBy Keyset column, updatedAt or createdAt, ignored when a cursor is given
+   * @param sortDir Sort direction, ignored when a cursor is given
+   * @return One page without a total count
+   */
+  @Transactional(readOnly = true)
+  public TaskDTO.CursorPage scrollTasksAssignedToUser(
+      Long userId, String cursor, int size, String sortBy, String sortDir) {
+    log.info("Scrolling tasks assigned to user with id: {}", userId);
+    ensureUserExists(userId);
+    return scroll(TaskSpecifications.assignedTo(userId), cursor, size, sortBy, sortDir);
+  }
+
+  /**
+   * Get tasks created by a specific user in keyset order
+   *
+   * @param userId User ID
+   * @param cursor Continuation token from the previous page, null for the first page
+   * @param size Page size
+   * @param sortBy Keyset column, updatedAt or createdAt, ignored when a cursor is given
+   * @param sortDir Sort direction, ignored when a cursor is given
+   * @return One page without a total count
+   */
+  @Transactional(readOnly = true)
+  public TaskDTO.CursorPage scrollTasksCreatedByUser(
+      Long userId, String cursor, int size, String sortBy, String sortDir) {
+    log.info("Scrolling tasks created by user with id: {}", userId);
+    ensureUserExists(userId);
+    return scroll(TaskSpecifications.createdBy(userId), cursor, size, sortBy, sortDir);
+  }
+
+  /**
+   * Apply the fields of a merge patch to a task
+   *
+   * @param task Task to change
+   * @param updates Map of fields to update, already validated
+   * @param users Resolves the id of a new assignee
+   */
+  private void applyPatch(Task task, Map<String, Object> updates, Function<Long, User> users) {
+    if (updates.containsKey("title") && updates.get("title") != null) {
+      String title = (String) updates.get("title");
+      task.setTitle(title);
+      log.info("Updated title to: {}", task.getTitle());
+    }
+
+    if (updates.containsKey("description")) {
+      task.setDescription((String) updates.get("description"));
+      log.info("Updated description");
+    }
+
+    if (updates.containsKey("status") && updates.get("status") != null) {
+      TaskStatus newStatus = TaskStatus.valueOf((String) updates.get("status"));
+
+      // Check if status transition is valid
+      if (isValidStatusTransition(task.getStatus(), newStatus)) {
+        throw new IllegalOperationException(
+            "Invalid status transition from " + task.getStatus() + " to " + newStatus);
+      }
+
+      task.setStatus(newStatus);
+      log.info("Updated status to: {}", task.getStatus());
+    }
+
+    if (updates.containsKey("priority") && updates.get("priority") != null) {
+      task.setPriority(TaskPriority.valueOf((String) updates.get("priority")));
+      log.info("Updated priority to: {}", task.getPriority());
+    }
+
+    if (updates.containsKey("assignedTo")) {
+      if (updates.get("assignedTo") == null) {
+        task.setAssignedTo(null);
+        log.info("Removed assignment");
+      } else {
+        User assignedUser = users.apply(((Number) updates.get("assignedTo")).longValue());
+        task.setAssignedTo(assignedUser);
+        log.info("Updated assigned user to: {}", assignedUser.getUsername());
+      }
+    }
+  }
+
   /**
    * Find task by ID
    *
@@ -439,12 +737,16 @@ public class TaskService {
    * @throws ResourceNotFoundException if user not found
    */
   private User getCurrentUser() {
-    UserDetails userDetails =
-        (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication.getPrincipal() instanceof JwtPrincipal principal
+        && principal.userId() != null) {
+      // The signed token vouches for the id, so the user is only referenced, never loaded
+      return User.builder().id(principal.userId()).username(principal.username()).build();
+    }
+    String username = authentication.getName();
     return userRepository
-        .findByUsername(userDetails.getUsername())
-        .orElseThrow(
-            () -> new ResourceNotFoundException("User not found: " + userDetails.getUsername()));
+        .findByUsername(username)
+        .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
   }
 
   /**
@@ -480,7 +782,7 @@ public class TaskService {
    * Validate patch updates
    *
    * @param updates Map of fields to update
-   * @param existingTask Existing task
+   * @param existingTask Existing task, null to skip the status transition check
    * @throws IllegalArgumentException if validation fails
    */
   private void validatePatchUpdates(Map<String, Object> updates, Task existingTask) {
@@ -502,7 +804,8 @@ public class TaskService {
       try {
         TaskStatus newStatus = TaskStatus.valueOf((String) updates.get("status"));
 
-        if (isValidStatusTransition(existingTask.getStatus(), newStatus)) {
+        if (existingTask != null
+            && isValidStatusTransition(existingTask.getStatus(), newStatus)) {
           throw new IllegalOperationException(
               "Invalid status transition from " + existingTask.getStatus() + " to " + newStatus);
         }
@@ -545,7 +848,8 @@ public class TaskService {
   }
 
   /**
-   * Validate and adjust pageable request
+   * Validate and adjust pageable request. Ties are broken by id, so that pages neither repeat nor
+   * skip tasks sharing a sort value and the (column, id) indexes can serve the order.
    *
    * @param pageable Original pageable request
    * @return Validated and adjusted pageable
@@ -563,10 +867,214 @@ public class TaskService {
     if (hasInvalid || sort.isEmpty()) {
       log.debug(
           "Invalid sort properties detected or sort is empty. Using default sort: updatedAt,DESC");
-      Sort defaultSort = Sort.by(Sort.Direction.DESC, "updatedAt");
-      return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), defaultSort);
+      sort = Sort.by(Sort.Direction.DESC, "updatedAt");
+    }
+    if (sort.getOrderFor("id") == null) {
+      Sort.Direction last =
+          sort.stream().reduce((first, second) -> second).orElseThrow().getDirection();
+      sort = sort.and(Sort.by(last, "id"));
     }
 
-    return pageable;
+    return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+  }
+
+  /**
+   * Fetch one keyset page. One row more than requested is read to learn whether another page
+   * follows, so no count query is needed.
+   *
+   * @param filter Optional filter
+   * @param cursor Continuation token, null for the first page
+   * @param size Requested page size
+   * @param sortBy Requested keyset column
+   * @param sortDir Requested sort direction
+   * @return One page
+   */
+  private TaskDTO.CursorPage scroll(
+      Specification<Task> filter, String cursor, int size, String sortBy, String sortDir) {
+    int pageSize = Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+
+    TaskCursor position = cursor != null && !cursor.isBlank() ? TaskCursor.decode(cursor) : null;
+    String sortProperty;
+    Sort.Direction direction;
+    if (position != null) {
+      sortProperty = position.sortBy();
+      direction = position.direction();
+    } else {
+      sortProperty = TaskCursor.SORT_PROPERTIES.contains(sortBy) ? sortBy : "updatedAt";
+      direction = "asc".equalsIgnoreCase(sortDir) ? Sort.Direction.ASC : Sort.Direction.DESC;
+    }
+
+    Specification<Task> spec = Specification.where(filter);
+    if (position != null) {
+      spec = spec.and(TaskSpecifications.after(position));
+    }
+    Sort sort = Sort.by(direction, sortProperty).and(Sort.by(direction, "id"));
+
+    List<TaskView> tasks = taskRepository.findViews(spec, sort, pageSize + 1);
+
+    boolean hasNext = tasks.size() > pageSize;
+    List<TaskView> content = hasNext ? tasks.subList(0, pageSize) : tasks;
+    String nextCursor =
+        hasNext
+            ? TaskCursor.after(content.get(content.size() - 1), sortProperty, direction).encode()
+            : null;
+    log.info("Found {} tasks, more available: {}", content.size(), hasNext);
+
+    return TaskDTO.CursorPage.builder()
+        .content(content.stream().map(taskMapper::toDto).toList())
+        .size(pageSize)
+        .hasNext(hasNext)
+        .nextCursor(nextCursor)
+        .build();
+  }
+
+  /**
+   * Write changes with one statement that only succeeds if the task exists, still has the expected
+   * version and may move to the new status. The assignee's existence is left to the foreign key.
+   *
+   * @param id Task ID
+   * @param expectedVersion Version the client last saw, null to skip the check
+   * @param changes Columns to write
+   * @return Updated task DTO
+   */
+  private TaskDTO.Response applyChanges(Long id, Long expectedVersion, TaskChanges changes) {
+    if (changes.isEmpty()) {
+      return taskRepository
+          .findViewById(id)
+          .map(taskMapper::toDto)
+          .orElseThrow(() -> new ResourceNotFoundException("Task not found with id: " + id));
+    }
+
+    Set<TaskStatus> fromStatuses =
+        changes.status() == null ? null : statusesAllowedBefore(changes.status());
+    TaskUpdate update;
+    try {
+      update =
+          taskRepository
+              .updateIfMatches(id, expectedVersion, fromStatuses, changes)
+              .orElseThrow(() -> updateRejected(id, expectedVersion, changes.status()));
+    } catch (DataIntegrityViolationException e) {
+      throw new ResourceNotFoundException("User not found with id: " + changes.assignedTo());
+    }
+
+    TaskDTO.Response previous = taskMapper.toDto(update.previous());
+    TaskDTO.Response response = taskMapper.toDto(update.current());
+    taskQueryCache.evictMatching(previous, response);
+    webSocketService.notifyTaskUpdated(previous, response);
+    return response;
+  }
+
+  /**
+   * Work out why a conditional update matched no row. Only runs on the failure path.
+   *
+   * @param id Task ID
+   * @param expectedVersion Version the client expected
+   * @param newStatus Requested status, may be null
+   * @return Exception to throw
+   */
+  private RuntimeException updateRejected(Long id, Long expectedVersion, TaskStatus newStatus) {
+    Task task = findTaskById(id);
+    if (newStatus != null && isValidStatusTransition(task.getStatus(), newStatus)) {
+      return new IllegalOperationException(
+          "Invalid status transition from " + task.getStatus() + " to " + newStatus);
+    }
+    log.info(
+        "Task {} changed concurrently, expected version {} but found {}",
+        id,
+        expectedVersion,
+        task.getVersion());
+    return new ConflictException("Task was updated by another user. Please refresh and try again.");
+  }
+
+  /**
+   * @param newStatus Target status
+   * @return Statuses a task may have to be moved to the target status
+   */
+  private Set<TaskStatus> statusesAllowedBefore(TaskStatus newStatus) {
+    return Arrays.stream(TaskStatus.values())
+        .filter(current -> !isValidStatusTransition(current, newStatus))
+        .collect(Collectors.toCollection(() -> EnumSet.noneOf(TaskStatus.class)));
+  }
+
+  private void checkBatchSize(int size) {
+    if (size == 0 || size > TaskDTO.MAX_BATCH_SIZE) {
+      throw new IllegalOperationException(
+          "A batch must contain between 1 and " + TaskDTO.MAX_BATCH_SIZE + " items");
+    }
+  }
+
+  /** Load the tasks of a batch with one query */
+  private Map<Long, Task> findTasksById(List<Long> ids) {
+    return taskRepository.findAllById(new LinkedHashSet<>(ids)).stream()
+        .collect(Collectors.toMap(Task::getId, Function.identity()));
+  }
+
+  /** Load the users a batch refers to with one query, ignoring null ids */
+  private Map<Long, User> findUsersById(List<Long> ids) {
+    Set<Long> distinct = ids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+    if (distinct.isEmpty()) {
+      return Map.of();
+    }
+    return userRepository.findAllById(distinct).stream()
+        .collect(Collectors.toMap(User::getId, Function.identity()));
+  }
+
+  private static Task taskIn(Map<Long, Task> tasks, Long id) {
+    Task task = tasks.get(id);
+    if (task == null) {
+      throw new ResourceNotFoundException("Task not found with id: " + id);
+    }
+    return task;
+  }
+
+  private static User userIn(Map<Long, User> users, Long id) {
+    User user = users.get(id);
+    if (user == null) {
+      throw new ResourceNotFoundException("User not found with id: " + id);
+    }
+    return user;
+  }
+
+  /**
+   * Flush the batched statements now, so a concurrent modification is reported against the item
+   * it belongs to rather than surfacing at commit
+   *
+   * @param ids Task ids in request order, empty for creations
+   */
+  private void flushBatch(List<Long> ids) {
+    try {
+      taskRepository.flush();
+    } catch (ObjectOptimisticLockingFailureException e) {
+      int index = ids.indexOf(e.getIdentifier());
+      throw new BatchOperationException(
+          index >= 0 ? index : null,
+          index >= 0 ? ids.get(index) : null,
+          new ConflictException("Task was updated by another user. Please refresh and try again."));
+    } catch (DataIntegrityViolationException e) {
+      throw new BatchOperationException(null, null, e);
+    }
+  }
+
+  private static TaskDTO.BatchResponse batchResponse(
+      List<TaskDTO.Response> tasks, TaskDTO.BatchOutcome outcome) {
+    return TaskDTO.BatchResponse.builder()
+        .results(
+            IntStream.range(0, tasks.size())
+                .mapToObj(
+                    i ->
+                        TaskDTO.BatchItem.builder()
+                            .index(i)
+                            .id(tasks.get(i).getId())
+                            .outcome(outcome)
+                            .task(tasks.get(i))
+                            .build())
+                .toList())
+        .build();
+  }
+
+  private void ensureUserExists(Long userId) {
+    if (!userRepository.existsById(userId)) {
+      throw new ResourceNotFoundException("User not found with id: " + userId);
+    }
   }
 }
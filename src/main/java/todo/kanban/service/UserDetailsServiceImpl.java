@@ -2,20 +2,25 @@ package todo.kanban.service;
 
 import java.util.Collections;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import todo.kanban.model.User;
 import todo.kanban.repository.UserRepository;
 
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+@Slf4j
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
   private final UserRepository userRepository;
 
   @Override
+  @Transactional(readOnly = true)
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
     User user =
         userRepository
@@ -25,4 +30,24 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     return new org.springframework.security.core.userdetails.User(
         user.getUsername(), user.getPassword(), Collections.emptyList());
   }
+
+  /**
+   * Store a re-encoded password. Called after a successful login whose stored hash was made at a
+   * lower cost than the encoder is configured for.
+   */
+  @Override
+  @Transactional
+  public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+    User user =
+        userRepository
+            .findByUsername(userDetails.getUsername())
+            .orElseThrow(
+                () ->
+                    new UsernameNotFoundException("User not found: " + userDetails.getUsername()));
+    user.setPassword(newPassword);
+    log.info("Upgraded password hash for user: {}", user.getUsername());
+
+    return new org.springframework.security.core.userdetails.User(
+        user.getUsername(), newPassword, userDetails.getAuthorities());
+  }
 }
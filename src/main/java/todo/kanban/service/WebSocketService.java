@@ -1,30 +1,88 @@
 package todo.kanban.service;
 
+import java.util.ArrayList;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import todo.kanban.dto.TaskDTO;
-import todo.kanban.websocket.WebSocketMessage;
-import todo.kanban.websocket.WebSocketMessageType;
+import todo.kanban.websocket.TaskEvent;
+import todo.kanban.websocket.TaskEventBroadcaster;
+import todo.kanban.websocket.TaskOutbox;
 
+/**
+ * Task change notifications for WebSocket clients.
+ *
+ * <p>Inside a transaction the events are held until it commits and dropped if it rolls back, so
+ * clients never see a change that did not happen. With the outbox enabled they are also recorded
+ * in the transaction itself.
+ */
 @Service
 @RequiredArgsConstructor
 public class WebSocketService {
 
-  private final SimpMessagingTemplate messagingTemplate;
+  private final TaskEventBroadcaster broadcaster;
+  private final ObjectProvider<TaskOutbox> outbox;
 
   public void notifyTaskCreated(TaskDTO.Response task) {
-    WebSocketMessage message = new WebSocketMessage(WebSocketMessageType.CREATED, task);
-    messagingTemplate.convertAndSend("/topic/tasks", message);
+    publish(List.of(TaskEvent.created(task)));
   }
 
-  public void notifyTaskUpdated(TaskDTO.Response task) {
-    WebSocketMessage message = new WebSocketMessage(WebSocketMessageType.UPDATED, task);
-    messagingTemplate.convertAndSend("/topic/tasks", message);
+  public void notifyTaskUpdated(TaskDTO.Response previous, TaskDTO.Response task) {
+    publish(List.of(TaskEvent.updated(previous, task)));
   }
 
-  public void notifyTaskDeleted(Long taskId) {
-    WebSocketMessage message = new WebSocketMessage(WebSocketMessageType.DELETED, taskId);
-    messagingTemplate.convertAndSend("/topic/tasks", message);
+  public void notifyTaskDeleted(TaskDTO.Response previous) {
+    publish(List.of(TaskEvent.deleted(previous)));
+  }
+
+  /**
+   * Notify about the changes of a batch request; subscribers get them in one message per topic
+   *
+   * @param events Changes in request order
+   */
+  public void notifyTasks(List<TaskEvent> events) {
+    publish(events);
+  }
+
+  private void publish(List<TaskEvent> events) {
+    if (events.isEmpty()) {
+      return;
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      broadcaster.publish(events);
+      return;
+    }
+
+    TaskOutbox taskOutbox = outbox.getIfAvailable();
+    List<TaskEvent> recorded = taskOutbox != null ? taskOutbox.record(events) : events;
+    pendingEvents().addAll(recorded);
+  }
+
+  /** Events of the current transaction, broadcast together once it commits */
+  @SuppressWarnings("unchecked")
+  private List<TaskEvent> pendingEvents() {
+    List<TaskEvent> pending = (List<TaskEvent>) TransactionSynchronizationManager.getResource(this);
+    if (pending != null) {
+      return pending;
+    }
+
+    List<TaskEvent> events = new ArrayList<>();
+    TransactionSynchronizationManager.bindResource(this, events);
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            broadcaster.publish(events);
+          }
+
+          @Override
+          public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(WebSocketService.this);
+          }
+        });
+    return events;
   }
 }
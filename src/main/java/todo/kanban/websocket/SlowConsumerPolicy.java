@@ -0,0 +1,13 @@
+package todo.kanban.websocket;
+
+/** What happens to a WebSocket session that cannot keep up with the messages sent to it. */
+public enum SlowConsumerPolicy {
+  /** Keep sending; a session over the transport's send time or buffer limit is closed */
+  TERMINATE,
+  /**
+   * Skip topic messages to a session while one of its sends is stuck. Sequence numbers run per
+   * destination, so the client notices the gap in {@code seq} and resumes with a from-seq
+   * subscription or reloads; the transport limits still close a session that stays stuck.
+   */
+  DROP
+}
@@ -0,0 +1,15 @@
+package todo.kanban.websocket;
+
+import java.util.List;
+import todo.kanban.dto.TaskDTO;
+
+/**
+ * Payload of a {@link WebSocketMessageType#BATCH} message: every task a batch request touched, so
+ * clients receive one message instead of one per item.
+ *
+ * @param created Tasks created by the batch
+ * @param updated Changed fields of the tasks updated by the batch
+ * @param deleted Ids of tasks deleted by the batch
+ */
+public record TaskBatchPayload(
+    List<TaskDTO.Response> created, List<TaskDelta> updated, List<Long> deleted) {}
@@ -0,0 +1,71 @@
+package todo.kanban.websocket;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import todo.kanban.dto.TaskDTO;
+
+/**
+ * Payload of a {@link WebSocketMessageType#UPDATED} message: only the fields that changed.
+ *
+ * <p>A client holding the task at {@code baseVersion} applies {@code changes} and moves to {@code
+ * version}. A client holding any other version missed an update and should fetch a snapshot,
+ * either with {@code GET /api/tasks/{id}} or by subscribing to {@code /app/tasks/{id}}. Several
+ * updates coalesced into one message advance the version by more than one, which is why the base
+ * is sent rather than assumed.
+ *
+ * @param id Task id
+ * @param baseVersion Version the changes apply to, null when the earlier state is unknown and the
+ *     changes hold every field
+ * @param version Version after the changes
+ * @param changes Changed fields by JSON name; a null value clears the field, so nulls are written
+ *     even though the application otherwise leaves them out
+ */
+public record TaskDelta(
+    Long id,
+    Long baseVersion,
+    Long version,
+    @JsonInclude(content = JsonInclude.Include.ALWAYS) Map<String, Object> changes) {
+
+  private static final Map<String, Function<TaskDTO.Response, Object>> FIELDS = fields();
+
+  /**
+   * Compare two states of a task
+   *
+   * @param previous State clients last saw, may be null
+   * @param current State after the update
+   * @return Delta leading from previous to current
+   */
+  public static TaskDelta between(TaskDTO.Response previous, TaskDTO.Response current) {
+    Map<String, Object> changes = new LinkedHashMap<>();
+    FIELDS.forEach(
+        (name, field) -> {
+          Object value = field.apply(current);
+          if (previous == null || !Objects.equals(field.apply(previous), value)) {
+            changes.put(name, value);
+          }
+        });
+    return new TaskDelta(
+        current.getId(),
+        previous == null ? null : previous.getVersion(),
+        current.getVersion(),
+        changes);
+  }
+
+  private static Map<String, Function<TaskDTO.Response, Object>> fields() {
+    Map<String, Function<TaskDTO.Response, Object>> fields = new LinkedHashMap<>();
+    fields.put("title", TaskDTO.Response::getTitle);
+    fields.put("description", TaskDTO.Response::getDescription);
+    fields.put("status", TaskDTO.Response::getStatus);
+    fields.put("priority", TaskDTO.Response::getPriority);
+    fields.put("createdBy", TaskDTO.Response::getCreatedBy);
+    fields.put("createdByUsername", TaskDTO.Response::getCreatedByUsername);
+    fields.put("assignedTo", TaskDTO.Response::getAssignedTo);
+    fields.put("assignedToUsername", TaskDTO.Response::getAssignedToUsername);
+    fields.put("createdAt", TaskDTO.Response::getCreatedAt);
+    fields.put("updatedAt", TaskDTO.Response::getUpdatedAt);
+    return fields;
+  }
+}
@@ -0,0 +1,38 @@
+package todo.kanban.websocket;
+
+import todo.kanban.dto.TaskDTO;
+
+/**
+ * A change to one task waiting to be broadcast.
+ *
+ * @param outboxId Id of the outbox row recording the event, null when the outbox is disabled
+ * @param type {@link WebSocketMessageType#CREATED}, {@link WebSocketMessageType#UPDATED} or {@link
+ *     WebSocketMessageType#DELETED}
+ * @param taskId Id of the task
+ * @param task State after the change, null for deletions
+ * @param previous State before the change, null for creations; decides, with {@code task}, which
+ *     topics hear about the change
+ */
+public record TaskEvent(
+    Long outboxId,
+    WebSocketMessageType type,
+    Long taskId,
+    TaskDTO.Response task,
+    TaskDTO.Response previous) {
+
+  public static TaskEvent created(TaskDTO.Response task) {
+    return new TaskEvent(null, WebSocketMessageType.CREATED, task.getId(), task, null);
+  }
+
+  public static TaskEvent updated(TaskDTO.Response previous, TaskDTO.Response task) {
+    return new TaskEvent(null, WebSocketMessageType.UPDATED, task.getId(), task, previous);
+  }
+
+  public static TaskEvent deleted(TaskDTO.Response previous) {
+    return new TaskEvent(null, WebSocketMessageType.DELETED, previous.getId(), null, previous);
+  }
+
+  public TaskEvent withOutboxId(Long outboxId) {
+    return new TaskEvent(outboxId, type, taskId, task, previous);
+  }
+}
@@ -0,0 +1,242 @@
+package todo.kanban.websocket;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import todo.kanban.dto.TaskDTO;
+
+/**
+ * Sends committed task events to their {@link TaskTopics}, coalescing what arrives within a short
+ * window.
+ *
+ * <p>Within a window only the last state of each task is kept: an update after a create stays a
+ * create, a delete replaces anything before it, and a task created and deleted in the same window
+ * is not sent at all. Per destination, a window holding one task goes out as that task's own
+ * message type, a window holding several as one {@link WebSocketMessageType#BATCH} message.
+ * Serialization happens on the broadcaster's thread, never inside the writing transaction.
+ *
+ * <p>With a {@link TaskEventRelay}, the events of this node are forwarded to the other nodes once
+ * per window, and theirs are broadcast here like local ones. An event seen before, for example
+ * again from the outbox relay, is dropped.
+ *
+ * <p>Each window is also handed to the {@link TaskEventStream} behind the GraphQL subscriptions.
+ */
+@Component
+@Slf4j
+public class TaskEventBroadcaster {
+
+  private final SimpMessagingTemplate messagingTemplate;
+  private final ObjectProvider<TaskOutbox> outbox;
+  private final ObjectProvider<TaskEventRelay> relay;
+  private final TaskEventLog eventLog;
+  private final TaskEventStream eventStream;
+  private final Duration window;
+  private final boolean legacyFirehose;
+  private final ScheduledExecutorService scheduler;
+  private final Timer fanOutTimer;
+  private final Cache<String, Boolean> recentEvents =
+      Caffeine.newBuilder().maximumSize(100_000).expireAfterWrite(Duration.ofMinutes(5)).build();
+
+  private final Map<Long, TaskEvent> pending = new LinkedHashMap<>();
+  private final Map<Long, TaskEvent> pendingForPeers = new LinkedHashMap<>();
+  private final List<Long> pendingOutboxIds = new ArrayList<>();
+  private boolean flushScheduled;
+
+  public TaskEventBroadcaster(
+      SimpMessagingTemplate messagingTemplate,
+      ObjectProvider<TaskOutbox> outbox,
+      ObjectProvider<TaskEventRelay> relay,
+      TaskEventLog eventLog,
+      TaskEventStream eventStream,
+      @Value("${kanban.websocket.coalesce-window:100ms}") Duration window,
+      @Value("${kanban.websocket.legacy-firehose:false}") boolean legacyFirehose,
+      MeterRegistry meterRegistry) {
+    this.messagingTemplate = messagingTemplate;
+    this.outbox = outbox;
+    this.relay = relay;
+    this.eventLog = eventLog;
+    this.eventStream = eventStream;
+    this.window = window;
+    this.legacyFirehose = legacyFirehose;
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "task-event-broadcaster");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.fanOutTimer =
+        Timer.builder("kanban.websocket.broadcast")
+            .description("Time to fan one window of task events out to the subscribed sessions")
+            .register(meterRegistry);
+  }
+
+  @PostConstruct
+  public void init() {
+    relay.ifAvailable(r -> r.subscribe(events -> enqueue(events, false)));
+  }
+
+  /**
+   * Queue committed events for the next broadcast
+   *
+   * @param events Events in the order they happened
+   */
+  public void publish(Collection<TaskEvent> events) {
+    enqueue(events, true);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdown();
+    flush();
+  }
+
+  private void enqueue(Collection<TaskEvent> events, boolean local) {
+    if (events.isEmpty()) {
+      return;
+    }
+    synchronized (this) {
+      for (TaskEvent event : events) {
+        if (event.outboxId() != null) {
+          pendingOutboxIds.add(event.outboxId());
+        }
+        if (isDuplicate(event)) {
+          continue;
+        }
+        coalesce(pending, event);
+        if (local) {
+          coalesce(pendingForPeers, event);
+        }
+      }
+      if (flushScheduled) {
+        return;
+      }
+      flushScheduled = true;
+    }
+    scheduler.schedule(this::flush, window.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /** Every version of a task changes once, so type, id and version identify an event */
+  private boolean isDuplicate(TaskEvent event) {
+    TaskDTO.Response state = event.task() != null ? event.task() : event.previous();
+    if (state == null || state.getVersion() == null) {
+      return false;
+    }
+    String key = event.type() + ":" + event.taskId() + ":" + state.getVersion();
+    return recentEvents.asMap().putIfAbsent(key, Boolean.TRUE) != null;
+  }
+
+  private static void coalesce(Map<Long, TaskEvent> pending, TaskEvent event) {
+    TaskEvent earlier = pending.remove(event.taskId());
+    if (earlier == null) {
+      pending.put(event.taskId(), event);
+    } else if (earlier.type() != WebSocketMessageType.CREATED) {
+      // Subscribers last saw the state before the window, route by that
+      pending.put(
+          event.taskId(),
+          new TaskEvent(null, event.type(), event.taskId(), event.task(), earlier.previous()));
+    } else if (event.type() == WebSocketMessageType.UPDATED) {
+      // Clients never saw the task, so it is still new to them
+      pending.put(event.taskId(), TaskEvent.created(event.task()));
+    } else if (event.type() != WebSocketMessageType.DELETED) {
+      pending.put(event.taskId(), event);
+    }
+  }
+
+  private void flush() {
+    List<TaskEvent> events;
+    List<TaskEvent> forPeers;
+    List<Long> outboxIds;
+    synchronized (this) {
+      events = new ArrayList<>(pending.values());
+      forPeers = new ArrayList<>(pendingForPeers.values());
+      outboxIds = new ArrayList<>(pendingOutboxIds);
+      pending.clear();
+      pendingForPeers.clear();
+      pendingOutboxIds.clear();
+      flushScheduled = false;
+    }
+
+    try {
+      if (!forPeers.isEmpty()) {
+        relay.ifAvailable(r -> r.publish(forPeers));
+      }
+      if (!events.isEmpty()) {
+        fanOutTimer.record(() -> send(events));
+        eventStream.emit(events);
+      }
+      if (!outboxIds.isEmpty()) {
+        outbox.ifAvailable(o -> o.markPublished(outboxIds));
+      }
+    } catch (RuntimeException e) {
+      // Outbox rows stay unpublished and are picked up again by the relay
+      log.error("Failed to broadcast {} task events", events.size(), e);
+    }
+  }
+
+  private void send(List<TaskEvent> events) {
+    for (Map.Entry<String, List<TaskEvent>> destination : byDestination(events).entrySet()) {
+      WebSocketMessage message = toMessage(destination.getValue());
+      eventLog.append(destination.getKey(), message);
+      messagingTemplate.convertAndSend(destination.getKey(), message);
+    }
+  }
+
+  private Map<String, List<TaskEvent>> byDestination(List<TaskEvent> events) {
+    Map<String, List<TaskEvent>> byDestination = new LinkedHashMap<>();
+    for (TaskEvent event : events) {
+      for (String destination : TaskTopics.destinationsFor(event, legacyFirehose)) {
+        byDestination.computeIfAbsent(destination, d -> new ArrayList<>()).add(event);
+      }
+    }
+    return byDestination;
+  }
+
+  private static WebSocketMessage toMessage(List<TaskEvent> events) {
+    if (events.size() == 1) {
+      TaskEvent event = events.get(0);
+      return new WebSocketMessage(event.type(), payloadOf(event));
+    }
+
+    List<TaskDTO.Response> created = new ArrayList<>();
+    List<TaskDelta> updated = new ArrayList<>();
+    List<Long> deleted = new ArrayList<>();
+    for (TaskEvent event : events) {
+      switch (event.type()) {
+        case CREATED -> created.add(event.task());
+        case UPDATED -> updated.add(TaskDelta.between(event.previous(), event.task()));
+        case DELETED -> deleted.add(event.taskId());
+        default -> throw new IllegalStateException("Not a task event: " + event.type());
+      }
+    }
+    return new WebSocketMessage(
+        WebSocketMessageType.BATCH, new TaskBatchPayload(created, updated, deleted));
+  }
+
+  private static Object payloadOf(TaskEvent event) {
+    return switch (event.type()) {
+      case CREATED -> event.task();
+      // Only what changed; most updates touch one or two fields
+      case UPDATED -> TaskDelta.between(event.previous(), event.task());
+      case DELETED -> event.taskId();
+      default -> throw new IllegalStateException("Not a task event: " + event.type());
+    };
+  }
+}
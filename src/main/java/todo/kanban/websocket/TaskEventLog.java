@@ -0,0 +1,99 @@
+package todo.kanban.websocket;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stamps every task broadcast with a sequence number and keeps the most recent ones in a ring
+ * buffer, so a client that reconnects can be sent what it missed.
+ *
+ * <p>Each destination is numbered on its own, one up per message, so a client sees consecutive
+ * numbers on a topic and any gap means it missed a message, for example one skipped for a slow
+ * session. The ring holds the latest messages of all destinations together.
+ *
+ * <p>Numbers are only meaningful together with the epoch sent alongside them, which is drawn at
+ * random when the node starts: every node numbers its own broadcasts, and after a restart numbering
+ * begins again. A position from another epoch, whether from another node or from before a restart,
+ * always leads to a resync, even if its number happens to be valid here.
+ */
+@Component
+public class TaskEventLog {
+
+  private final Entry[] ring;
+  private final String epoch = UUID.randomUUID().toString();
+  private final Map<String, Long> lastSeqs = new HashMap<>();
+  private long appended;
+
+  public TaskEventLog(@Value("${kanban.websocket.replay-buffer-size:10000}") int capacity) {
+    this.ring = new Entry[capacity];
+  }
+
+  /**
+   * Assign the destination's next sequence number to a message and remember it
+   *
+   * @param destination Topic the message is sent to
+   * @param message Message to stamp, its {@code seq} and {@code epoch} are set
+   */
+  public synchronized void append(String destination, WebSocketMessage message) {
+    long seq = lastSeqs.merge(destination, 1L, Long::sum);
+    message.setSeq(seq);
+    message.setEpoch(epoch);
+    ring[(int) (appended++ % ring.length)] = new Entry(seq, destination, message);
+  }
+
+  /**
+   * Messages sent to a destination after a position
+   *
+   * @param destination Topic the client subscribes to
+   * @param fromEpoch Epoch of the last message the client received
+   * @param fromSeq Last sequence number the client received on the destination
+   * @return Missed messages in order, or empty if the position is from another epoch or some of
+   *     the messages are no longer buffered
+   */
+  public synchronized Optional<List<WebSocketMessage>> since(
+      String destination, String fromEpoch, long fromSeq) {
+    long lastSeq = lastSeq(destination);
+    if (!epoch.equals(fromEpoch) || fromSeq < 0 || fromSeq > lastSeq) {
+      return Optional.empty();
+    }
+
+    List<WebSocketMessage> missed = new ArrayList<>();
+    long expected = fromSeq + 1;
+    for (long i = Math.max(0, appended - ring.length); i < appended; i++) {
+      Entry entry = ring[(int) (i % ring.length)];
+      if (entry.seq() < expected || !entry.destination().equals(destination)) {
+        continue;
+      }
+      if (entry.seq() != expected) {
+        // the oldest missed messages were overwritten
+        return Optional.empty();
+      }
+      missed.add(entry.message());
+      expected++;
+    }
+    return expected > lastSeq ? Optional.of(missed) : Optional.empty();
+  }
+
+  /**
+   * @return Epoch of the sequence numbers this node assigns
+   */
+  public String epoch() {
+    return epoch;
+  }
+
+  /**
+   * @param destination Topic
+   * @return Sequence number of the latest message sent to it, 0 if there was none
+   */
+  public synchronized long lastSeq(String destination) {
+    return lastSeqs.getOrDefault(destination, 0L);
+  }
+
+  private record Entry(long seq, String destination, WebSocketMessage message) {}
+}
@@ -0,0 +1,22 @@
+package todo.kanban.websocket;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/** Carries task events between the nodes so each can broadcast them to its own sessions. */
+public interface TaskEventRelay {
+
+  /**
+   * Send this node's events to the other nodes
+   *
+   * @param events Coalesced events of one broadcast window
+   */
+  void publish(List<TaskEvent> events);
+
+  /**
+   * Receive the events other nodes publish; never called with this node's own events
+   *
+   * @param subscriber Called with the events of one remote window
+   */
+  void subscribe(Consumer<List<TaskEvent>> subscriber);
+}
@@ -0,0 +1,62 @@
+package todo.kanban.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * The task events the broadcaster sends, local and from peers, as a stream for GraphQL
+ * subscriptions.
+ *
+ * <p>Every subscriber gets its own bounded buffer and is fed from a worker thread, never from the
+ * broadcaster's. A subscriber that falls behind, or blocks, loses its oldest events rather than
+ * holding up the broadcaster or the other subscribers.
+ */
+@Component
+public class TaskEventStream {
+
+  private final Sinks.Many<TaskEvent> sink = Sinks.many().multicast().directBestEffort();
+  private final int bufferSize;
+  private final Counter droppedEvents;
+
+  public TaskEventStream(
+      @Value("${kanban.graphql.subscription-buffer-size:256}") int bufferSize,
+      MeterRegistry meterRegistry) {
+    this.bufferSize = bufferSize;
+    this.droppedEvents =
+        Counter.builder("kanban.graphql.subscription.dropped")
+            .description("Task events dropped for subscribers that fell behind")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Hand one broadcast window to the subscribers. Called from the broadcaster's thread only.
+   *
+   * @param events Coalesced events
+   */
+  public void emit(List<TaskEvent> events) {
+    if (sink.currentSubscriberCount() == 0) {
+      return;
+    }
+    for (TaskEvent event : events) {
+      sink.tryEmitNext(event);
+    }
+  }
+
+  /**
+   * @return Events from now on, buffered per subscriber and delivered on a worker thread
+   */
+  public Flux<TaskEvent> events() {
+    return sink.asFlux()
+        .onBackpressureBuffer(
+            bufferSize, event -> droppedEvents.increment(), BufferOverflowStrategy.DROP_OLDEST)
+        // Prefetch one so that the buffer above stays the only queue and its bound holds
+        .publishOn(Schedulers.boundedElastic(), 1);
+  }
+}
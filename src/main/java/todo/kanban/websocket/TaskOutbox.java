@@ -0,0 +1,184 @@
+package todo.kanban.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import todo.kanban.dto.TaskDTO;
+
+/**
+ * Transactional outbox for task events.
+ *
+ * <p>{@link #record} inserts the events in the writing transaction, so they commit or roll back
+ * with the change. The broadcaster marks them published once sent. A relay thread sends rows that
+ * are still unpublished after the grace period, which only happens when a node stopped between
+ * commit and broadcast; delivery is therefore at least once. Published rows are deleted after the
+ * retention period.
+ */
+@Component
+@ConditionalOnProperty(name = "kanban.websocket.outbox.enabled", havingValue = "true")
+@Slf4j
+public class TaskOutbox implements SmartLifecycle {
+
+  private static final int RELAY_BATCH_SIZE = 500;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+  private final TaskEventBroadcaster broadcaster;
+  private final Duration gracePeriod;
+  private final Duration retention;
+
+  private volatile boolean running;
+  private Thread relayThread;
+
+  public TaskOutbox(
+      JdbcTemplate jdbcTemplate,
+      ObjectMapper objectMapper,
+      TaskEventBroadcaster broadcaster,
+      @Value("${kanban.websocket.outbox.grace-period:10s}") Duration gracePeriod,
+      @Value("${kanban.websocket.outbox.retention:1h}") Duration retention) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.objectMapper = objectMapper;
+    this.broadcaster = broadcaster;
+    this.gracePeriod = gracePeriod;
+    this.retention = retention;
+  }
+
+  /**
+   * Insert events as part of the current transaction
+   *
+   * @param events Events to record
+   * @return The same events carrying their outbox ids
+   */
+  public List<TaskEvent> record(List<TaskEvent> events) {
+    List<Long> ids =
+        jdbcTemplate.queryForList(
+            "SELECT nextval('task_events_id_seq') FROM generate_series(1, ?)",
+            Long.class,
+            events.size());
+
+    List<TaskEvent> recorded = new ArrayList<>(events.size());
+    List<Object[]> rows = new ArrayList<>(events.size());
+    for (int i = 0; i < events.size(); i++) {
+      TaskEvent event = events.get(i).withOutboxId(ids.get(i));
+      recorded.add(event);
+      rows.add(
+          new Object[] {
+            event.outboxId(),
+            event.type().name(),
+            event.taskId(),
+            toJson(event.task()),
+            toJson(event.previous())
+          });
+    }
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO task_events (id, type, task_id, payload, previous)"
+            + " VALUES (?, ?, ?, CAST(? AS jsonb), CAST(? AS jsonb))",
+        rows);
+    return recorded;
+  }
+
+  /**
+   * Record that events went out
+   *
+   * @param ids Outbox ids of the sent events
+   */
+  public void markPublished(List<Long> ids) {
+    jdbcTemplate.batchUpdate(
+        "UPDATE task_events SET published_at = now() WHERE id = ? AND published_at IS NULL",
+        ids.stream().map(id -> new Object[] {id}).toList());
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    relayThread = new Thread(this::relay, "task-outbox-relay");
+    relayThread.setDaemon(true);
+    relayThread.start();
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (relayThread != null) {
+      relayThread.interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void relay() {
+    while (running) {
+      try {
+        relayUnpublished();
+        jdbcTemplate.update(
+            "DELETE FROM task_events WHERE published_at < now() - make_interval(secs => ?)",
+            retention.toSeconds());
+      } catch (RuntimeException e) {
+        log.warn("Task outbox relay failed: {}", e.getMessage());
+      }
+      try {
+        Thread.sleep(gracePeriod.toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  /** Claim and send rows nobody published in time; SKIP LOCKED keeps nodes from sending twice */
+  void relayUnpublished() {
+    List<TaskEvent> events =
+        jdbcTemplate.query(
+            "UPDATE task_events SET published_at = now() WHERE id IN ("
+                + " SELECT id FROM task_events WHERE published_at IS NULL"
+                + " AND created_at < now() - make_interval(secs => ?)"
+                + " ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED)"
+                + " RETURNING id, type, task_id, payload, previous",
+            (rs, rowNum) ->
+                new TaskEvent(
+                    null,
+                    WebSocketMessageType.valueOf(rs.getString("type")),
+                    rs.getLong("task_id"),
+                    fromJson(rs.getString("payload")),
+                    fromJson(rs.getString("previous"))),
+            gracePeriod.toSeconds(),
+            RELAY_BATCH_SIZE);
+    if (!events.isEmpty()) {
+      log.info("Relaying {} task events left unpublished", events.size());
+      broadcaster.publish(events);
+    }
+  }
+
+  private String toJson(TaskDTO.Response task) {
+    if (task == null) {
+      return null;
+    }
+    try {
+      return objectMapper.writeValueAsString(task);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize task " + task.getId(), e);
+    }
+  }
+
+  private TaskDTO.Response fromJson(String payload) {
+    if (payload == null) {
+      return null;
+    }
+    try {
+      return objectMapper.readValue(payload, TaskDTO.Response.class);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot read task event payload", e);
+    }
+  }
+}
@@ -0,0 +1,249 @@
+package todo.kanban.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets a reconnecting client resume a task topic. A SUBSCRIBE frame carrying {@code from-seq} and
+ * {@code from-epoch} headers, the {@code seq} and {@code epoch} of the last message the client
+ * received, is answered on that subscription with every buffered message it missed, or with a
+ * single {@link WebSocketMessageType#RESYNC} when the gap is no longer buffered or the epoch is not
+ * this node's current one.
+ *
+ * <p>Intercepts both client channels. From the moment the SUBSCRIBE arrives until the replay is
+ * out, live messages for the subscription are held back; the replay is read from the {@link
+ * TaskEventLog} only once the broker has registered the subscription, so every message is either
+ * replayed or held. Replayed and held messages are then delivered in order on the inbound thread,
+ * before live messages flow again, and held ones the replay already covered are skipped. A client
+ * therefore never receives a lower {@code seq} after a higher one.
+ */
+@Component
+@Slf4j
+public class TaskStreamReplay implements ExecutorChannelInterceptor {
+
+  static final String FROM_SEQ_HEADER = "from-seq";
+  static final String FROM_EPOCH_HEADER = "from-epoch";
+
+  private final TaskEventLog eventLog;
+  private final ObjectProvider<SimpMessagingTemplate> messagingTemplate;
+  private final ObjectProvider<MessageChannel> clientOutboundChannel;
+  private final ObjectMapper objectMapper;
+  private final Map<String, Replay> replays = new ConcurrentHashMap<>();
+
+  // The channels and template are created by the configuration this interceptor is registered in
+  public TaskStreamReplay(
+      TaskEventLog eventLog,
+      ObjectProvider<SimpMessagingTemplate> messagingTemplate,
+      @Qualifier("clientOutboundChannel") ObjectProvider<MessageChannel> clientOutboundChannel,
+      ObjectMapper objectMapper) {
+    this.eventLog = eventLog;
+    this.messagingTemplate = messagingTemplate;
+    this.clientOutboundChannel = clientOutboundChannel;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public Message<?> preSend(Message<?> message, MessageChannel channel) {
+    SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+    if (type == SimpMessageType.SUBSCRIBE) {
+      StompHeaderAccessor subscribe = StompHeaderAccessor.wrap(message);
+      String fromSeq = subscribe.getFirstNativeHeader(FROM_SEQ_HEADER);
+      if (fromSeq != null && isTaskTopic(subscribe.getDestination())) {
+        replays.put(
+            key(subscribe.getSessionId(), subscribe.getSubscriptionId()),
+            new Replay(subscribe, fromSeq));
+      }
+      return message;
+    }
+
+    if (type == SimpMessageType.MESSAGE && !replays.isEmpty()) {
+      Replay replay = replays.get(key(message));
+      if (replay != null && replay.hold(message)) {
+        return null;
+      }
+    }
+    return message;
+  }
+
+  @Override
+  public void afterSendCompletion(
+      Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+    if (!sent && isSubscribe(message)) {
+      // Never reaches the broker, so the replay would wait forever
+      replays.remove(key(message));
+    }
+  }
+
+  @Override
+  public void afterMessageHandled(
+      Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+    if (!(handler instanceof AbstractBrokerMessageHandler) || !isSubscribe(message)) {
+      return;
+    }
+    Replay replay = replays.get(key(message));
+    if (replay == null) {
+      return;
+    }
+    if (ex != null) {
+      replays.remove(key(message));
+      return;
+    }
+    replay.run();
+  }
+
+  private class Replay {
+
+    private final StompHeaderAccessor subscribe;
+    private final String fromSeq;
+    private final String key;
+    private final List<Message<?>> held = new ArrayList<>();
+    private boolean done;
+
+    Replay(StompHeaderAccessor subscribe, String fromSeq) {
+      this.subscribe = subscribe;
+      this.fromSeq = fromSeq;
+      this.key = key(subscribe.getSessionId(), subscribe.getSubscriptionId());
+    }
+
+    synchronized boolean hold(Message<?> message) {
+      if (done) {
+        return false;
+      }
+      held.add(message);
+      return true;
+    }
+
+    void run() {
+      String destination = subscribe.getDestination();
+      List<WebSocketMessage> missed;
+      try {
+        missed =
+            eventLog
+                .since(
+                    destination,
+                    subscribe.getFirstNativeHeader(FROM_EPOCH_HEADER),
+                    Long.parseLong(fromSeq.trim()))
+                .orElse(null);
+      } catch (NumberFormatException e) {
+        missed = null;
+      }
+
+      long delivered;
+      if (missed == null) {
+        log.debug("Replay from {} on {} is not buffered", fromSeq, destination);
+        // Clients resume from here after reloading over REST
+        delivered = eventLog.lastSeq(destination);
+        deliver(
+            toFrame(
+                new WebSocketMessage(
+                    WebSocketMessageType.RESYNC, null, delivered, eventLog.epoch())));
+      } else {
+        log.debug("Replaying {} messages on {}", missed.size(), destination);
+        delivered = Long.parseLong(fromSeq.trim());
+        for (WebSocketMessage message : missed) {
+          deliver(toFrame(message));
+          delivered = message.getSeq();
+        }
+      }
+
+      // Messages held meanwhile, skipping those the replay already covered
+      while (true) {
+        List<Message<?>> batch;
+        synchronized (this) {
+          if (held.isEmpty()) {
+            done = true;
+            replays.remove(key, this);
+            return;
+          }
+          batch = new ArrayList<>(held);
+          held.clear();
+        }
+        for (Message<?> message : batch) {
+          if (seqOf(message) > delivered) {
+            deliver(message);
+          }
+        }
+      }
+    }
+
+    private Message<?> toFrame(WebSocketMessage message) {
+      SimpMessageHeaderAccessor headers =
+          SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+      headers.setSessionId(subscribe.getSessionId());
+      headers.setSubscriptionId(subscribe.getSubscriptionId());
+      headers.setDestination(subscribe.getDestination());
+      headers.setLeaveMutable(true);
+      return messagingTemplate
+          .getObject()
+          .getMessageConverter()
+          .toMessage(message, headers.getMessageHeaders());
+    }
+  }
+
+  /**
+   * Hand a frame straight to the outbound channel's handlers on the calling thread, as the channel
+   * would on one of its own, so frames of one replay cannot overtake each other
+   */
+  private void deliver(Message<?> frame) {
+    if (frame == null) {
+      return;
+    }
+    if (clientOutboundChannel.getObject() instanceof AbstractSubscribableChannel outbound) {
+      for (MessageHandler handler : outbound.getSubscribers()) {
+        handler.handleMessage(frame);
+      }
+    }
+  }
+
+  /** Position of a held live frame, -1 if it cannot be read so that it is delivered */
+  private long seqOf(Message<?> message) {
+    if (!(message.getPayload() instanceof byte[] payload)) {
+      return -1;
+    }
+    try {
+      JsonNode seq = objectMapper.readTree(payload).get("seq");
+      return seq != null && seq.canConvertToLong() ? seq.asLong() : -1;
+    } catch (IOException e) {
+      return -1;
+    }
+  }
+
+  private static boolean isSubscribe(Message<?> message) {
+    return SimpMessageHeaderAccessor.getMessageType(message.getHeaders())
+        == SimpMessageType.SUBSCRIBE;
+  }
+
+  private static String key(Message<?> message) {
+    return key(
+        SimpMessageHeaderAccessor.getSessionId(message.getHeaders()),
+        SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders()));
+  }
+
+  private static String key(String sessionId, String subscriptionId) {
+    return sessionId + ":" + subscriptionId;
+  }
+
+  private static boolean isTaskTopic(String destination) {
+    return destination != null
+        && (destination.startsWith(TaskTopics.ALL) || destination.startsWith("/topic/users/"));
+  }
+}
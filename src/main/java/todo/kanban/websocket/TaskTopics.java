@@ -0,0 +1,71 @@
+package todo.kanban.websocket;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import todo.kanban.dto.TaskDTO;
+import todo.kanban.model.TaskStatus;
+
+/**
+ * STOMP destinations task changes are published to. Clients subscribe to the narrowest one that
+ * serves them, so each change is delivered only to sessions that care about it.
+ *
+ * <ul>
+ *   <li>{@code /topic/tasks/status/{status}}: one board column
+ *   <li>{@code /topic/users/{username}/tasks}: tasks the user created or is assigned, readable only
+ *       by that user
+ *   <li>{@code /topic/tasks}: every change, only with {@code kanban.websocket.legacy-firehose}
+ *       for clients not yet moved to the scoped topics
+ * </ul>
+ */
+public final class TaskTopics {
+
+  public static final String ALL = "/topic/tasks";
+  static final String STATUS_PATTERN = "/topic/tasks/status/{status}";
+  static final String USER_PATTERN = "/topic/users/{username}/tasks";
+
+  private TaskTopics() {}
+
+  public static String status(TaskStatus status) {
+    return "/topic/tasks/status/" + status.name();
+  }
+
+  public static String user(String username) {
+    return "/topic/users/" + username + "/tasks";
+  }
+
+  /**
+   * Topics a change goes to. A task that moves column or changes hands is published on the old and
+   * the new topic, so subscribers of both can update.
+   *
+   * @param event Task change
+   * @param firehose Whether to include {@link #ALL}
+   * @return Destinations, the firehose first
+   */
+  public static Set<String> destinationsFor(TaskEvent event, boolean firehose) {
+    Set<String> destinations = new LinkedHashSet<>();
+    if (firehose) {
+      destinations.add(ALL);
+    }
+    addScoped(destinations, event.previous());
+    addScoped(destinations, event.task());
+    return destinations;
+  }
+
+  private static void addScoped(Set<String> destinations, TaskDTO.Response task) {
+    if (task == null) {
+      return;
+    }
+    if (task.getStatus() != null) {
+      destinations.add(status(task.getStatus()));
+    }
+    addUser(destinations, task.getCreatedByUsername());
+    addUser(destinations, task.getAssignedToUsername());
+  }
+
+  private static void addUser(Set<String> destinations, String username) {
+    // A name with a slash could not be matched by the subscription rule, so nobody can listen
+    if (username != null && !username.contains("/")) {
+      destinations.add(user(username));
+    }
+  }
+}
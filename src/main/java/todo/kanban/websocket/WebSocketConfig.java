@@ -1,23 +1,94 @@
 package todo.kanban.websocket;
 
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+  private final WebSocketSessionMonitor sessionMonitor;
+  private final TaskStreamReplay streamReplay;
+  private final boolean virtualThreads;
+  private final int inboundThreads;
+  private final int outboundThreads;
+  private final Duration sendTimeLimit;
+  private final DataSize sendBufferSizeLimit;
+  private final DataSize messageSizeLimit;
+
+  public WebSocketConfig(
+      WebSocketSessionMonitor sessionMonitor,
+      TaskStreamReplay streamReplay,
+      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+      @Value("${kanban.websocket.inbound-threads:0}") int inboundThreads,
+      @Value("${kanban.websocket.outbound-threads:0}") int outboundThreads,
+      @Value("${kanban.websocket.transport.send-time-limit:10s}") Duration sendTimeLimit,
+      @Value("${kanban.websocket.transport.send-buffer-size-limit:512KB}")
+          DataSize sendBufferSizeLimit,
+      @Value("${kanban.websocket.transport.message-size-limit:64KB}") DataSize messageSizeLimit) {
+    this.sessionMonitor = sessionMonitor;
+    this.streamReplay = streamReplay;
+    this.virtualThreads = virtualThreads;
+    this.inboundThreads = inboundThreads;
+    this.outboundThreads = outboundThreads;
+    this.sendTimeLimit = sendTimeLimit;
+    this.sendBufferSizeLimit = sendBufferSizeLimit;
+    this.messageSizeLimit = messageSizeLimit;
+  }
+
   @Override
   public void configureMessageBroker(MessageBrokerRegistry registry) {
-    registry.enableSimpleBroker("/topic");
+    // No client uses STOMP selectors; skipping their evaluation saves work per subscriber and send
+    registry.enableSimpleBroker("/topic").setSelectorHeaderName(null);
     registry.setApplicationDestinationPrefixes("/app");
+    // Several outbound threads, platform or virtual, would otherwise reorder a session's frames
+    registry.setPreservePublishOrder(true);
+  }
+
+  @Override
+  public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+    // A session over either send limit is closed, whatever the slow-consumer policy
+    registration
+        .setSendTimeLimit((int) sendTimeLimit.toMillis())
+        .setSendBufferSizeLimit((int) sendBufferSizeLimit.toBytes())
+        .setMessageSizeLimit((int) messageSizeLimit.toBytes())
+        .addDecoratorFactory(sessionMonitor);
+  }
+
+  @Override
+  public void configureClientInboundChannel(ChannelRegistration registration) {
+    registration.interceptors(streamReplay);
+    if (virtualThreads) {
+      registration.executor(new VirtualThreadTaskExecutor("stomp-inbound-"));
+    } else if (inboundThreads > 0) {
+      registration.taskExecutor().corePoolSize(inboundThreads).maxPoolSize(inboundThreads);
+    }
+  }
+
+  @Override
+  public void configureClientOutboundChannel(ChannelRegistration registration) {
+    // Replay first, so held messages are not counted as a session's backlog
+    registration.interceptors(streamReplay, sessionMonitor);
+    if (virtualThreads) {
+      registration.executor(new VirtualThreadTaskExecutor("stomp-outbound-"));
+    } else if (outboundThreads > 0) {
+      registration.taskExecutor().corePoolSize(outboundThreads).maxPoolSize(outboundThreads);
+    }
   }
 
   @Override
   public void registerStompEndpoints(StompEndpointRegistry registry) {
+    // Likewise for a session's inbound frames, a SUBSCRIBE must not overtake its CONNECT
+    registry.setPreserveReceiveOrder(true);
     registry.addEndpoint("/ws").setAllowedOriginPatterns("*").withSockJS();
   }
 }
@@ -10,4 +10,14 @@ import lombok.NoArgsConstructor;
 public class WebSocketMessage {
   private WebSocketMessageType type;
   private Object payload;
+
+  /** Position in the task event stream, see {@link TaskEventLog}; null for one-off replies */
+  private Long seq;
+
+  /** Node run that assigned {@code seq}; positions only compare within one epoch */
+  private String epoch;
+
+  public WebSocketMessage(WebSocketMessageType type, Object payload) {
+    this(type, payload, null, null);
+  }
 }
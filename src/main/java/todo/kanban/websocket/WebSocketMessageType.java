@@ -3,5 +3,8 @@ package todo.kanban.websocket;
 public enum WebSocketMessageType {
   CREATED,
   UPDATED,
-  DELETED
+  DELETED,
+  BATCH,
+  /** The requested replay is no longer buffered; reload over REST, then follow from {@code seq} */
+  RESYNC
 }
@@ -1,5 +1,6 @@
 package todo.kanban.websocket;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.messaging.MessageSecurityMetadataSourceRegistry;
 import org.springframework.security.config.annotation.web.socket.AbstractSecurityWebSocketMessageBrokerConfigurer;
@@ -7,13 +8,29 @@ import org.springframework.security.config.annotation.web.socket.AbstractSecurit
 @Configuration
 public class WebSocketSecurityConfig extends AbstractSecurityWebSocketMessageBrokerConfigurer {
 
+  private final boolean legacyFirehose;
+
+  public WebSocketSecurityConfig(
+      @Value("${kanban.websocket.legacy-firehose:false}") boolean legacyFirehose) {
+    this.legacyFirehose = legacyFirehose;
+  }
+
   @Override
   protected void configureInbound(MessageSecurityMetadataSourceRegistry messages) {
+    if (legacyFirehose) {
+      messages.simpSubscribeDestMatchers(TaskTopics.ALL).authenticated();
+    }
     messages
         .simpDestMatchers("/app/**")
         .authenticated()
-        .simpSubscribeDestMatchers("/topic/tasks")
+        .simpSubscribeDestMatchers(TaskTopics.STATUS_PATTERN)
         .authenticated()
+        // A user's topic carries their own tasks only
+        .simpSubscribeDestMatchers(TaskTopics.USER_PATTERN)
+        .access("#username == authentication.name")
+        // Including the firehose unless it is enabled, which would show everyone every task
+        .simpSubscribeDestMatchers("/topic/**")
+        .denyAll()
         .anyMessage()
         .authenticated();
   }
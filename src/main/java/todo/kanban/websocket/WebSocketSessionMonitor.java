@@ -0,0 +1,240 @@
+package todo.kanban.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+/**
+ * Watches every WebSocket session and the STOMP channels feeding them, and applies the {@link
+ * SlowConsumerPolicy}.
+ *
+ * <p>As a handler decorator it times each frame written to a session, which tells whether a session
+ * is stuck in a send. As an interceptor on the client outbound channel it counts the frames waiting
+ * for each session and, under {@link SlowConsumerPolicy#DROP}, discards topic messages to a stuck
+ * session before they are queued, so one slow client cannot build up a backlog on the shared
+ * outbound threads.
+ */
+@Component
+@Slf4j
+public class WebSocketSessionMonitor
+    implements WebSocketHandlerDecoratorFactory, ExecutorChannelInterceptor {
+
+  private static final Map<String, String> CHANNEL_EXECUTORS =
+      Map.of(
+          "inbound", "clientInboundChannelExecutor", "outbound", "clientOutboundChannelExecutor");
+
+  private final SlowConsumerPolicy policy;
+  private final long slowAfterNanos;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+  private final Timer sendTimer;
+  private final Timer deliveryTimer;
+  private final Counter droppedFrames;
+  private final Counter terminatedSessions;
+
+  public WebSocketSessionMonitor(
+      @Value("${kanban.websocket.slow-consumer.policy:terminate}") SlowConsumerPolicy policy,
+      @Value("${kanban.websocket.slow-consumer.threshold:2s}") Duration threshold,
+      MeterRegistry meterRegistry) {
+    this.policy = policy;
+    this.slowAfterNanos = threshold.toNanos();
+    this.meterRegistry = meterRegistry;
+
+    Gauge.builder("kanban.websocket.sessions", sessions, Map::size)
+        .description("Open WebSocket sessions")
+        .register(meterRegistry);
+    Gauge.builder(
+            "kanban.websocket.sessions.slow", this, WebSocketSessionMonitor::countSlowSessions)
+        .description("Sessions with a send in progress for longer than the slow threshold")
+        .register(meterRegistry);
+    Gauge.builder("kanban.websocket.session.backlog.max", this, WebSocketSessionMonitor::maxBacklog)
+        .description("Most frames waiting on the outbound channel for a single session")
+        .register(meterRegistry);
+    this.sendTimer =
+        Timer.builder("kanban.websocket.send")
+            .description("Time to write one frame to a session")
+            .register(meterRegistry);
+    this.deliveryTimer =
+        Timer.builder("kanban.websocket.outbound.latency")
+            .description("Time from a message being fanned out to it being handed to its session")
+            .register(meterRegistry);
+    this.droppedFrames =
+        Counter.builder("kanban.websocket.frames.dropped")
+            .description("Topic messages skipped for slow sessions")
+            .tag("reason", "slow_consumer")
+            .register(meterRegistry);
+    this.terminatedSessions =
+        Counter.builder("kanban.websocket.sessions.terminated")
+            .description("Sessions closed for exceeding the send time or buffer limit")
+            .tag("reason", "slow_consumer")
+            .register(meterRegistry);
+  }
+
+  /** The channel executors are created with the broker, after this monitor */
+  @EventListener
+  public void registerChannelGauges(ContextRefreshedEvent event) {
+    CHANNEL_EXECUTORS.forEach(
+        (channel, beanName) -> {
+          // With virtual threads the channels have no pool to measure
+          if (!event.getApplicationContext().containsBean(beanName)
+              || !(event.getApplicationContext().getBean(beanName)
+                  instanceof ThreadPoolTaskExecutor executor)) {
+            return;
+          }
+          Gauge.builder(
+                  "kanban.websocket.channel.queue",
+                  executor,
+                  e -> e.getThreadPoolExecutor().getQueue().size())
+              .description("Messages waiting for a thread of a STOMP channel")
+              .tag("channel", channel)
+              .register(meterRegistry);
+          Gauge.builder("kanban.websocket.channel.active", executor, e -> e.getActiveCount())
+              .description("Threads of a STOMP channel currently handling a message")
+              .tag("channel", channel)
+              .register(meterRegistry);
+        });
+  }
+
+  @Override
+  public WebSocketHandler decorate(WebSocketHandler handler) {
+    return new WebSocketHandlerDecorator(handler) {
+      @Override
+      public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        SessionState state = new SessionState();
+        sessions.put(session.getId(), state);
+        super.afterConnectionEstablished(new TimedSession(session, state));
+      }
+
+      @Override
+      public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus)
+          throws Exception {
+        sessions.remove(session.getId());
+        if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+          terminatedSessions.increment();
+          log.debug("Closed slow WebSocket session {}", session.getId());
+        }
+        super.afterConnectionClosed(session, closeStatus);
+      }
+    };
+  }
+
+  @Override
+  public Message<?> preSend(Message<?> message, MessageChannel channel) {
+    SessionState state = stateOf(message);
+    if (state == null) {
+      return message;
+    }
+    if (policy == SlowConsumerPolicy.DROP && isTopicMessage(message) && state.isSlow()) {
+      droppedFrames.increment();
+      return null;
+    }
+    state.backlog.incrementAndGet();
+    return message;
+  }
+
+  @Override
+  public void afterMessageHandled(
+      Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+    SessionState state = stateOf(message);
+    if (state == null) {
+      return;
+    }
+    state.backlog.decrementAndGet();
+    Long timestamp = message.getHeaders().getTimestamp();
+    if (timestamp != null) {
+      deliveryTimer.record(
+          Math.max(0, System.currentTimeMillis() - timestamp), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private SessionState stateOf(Message<?> message) {
+    String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+    return sessionId == null ? null : sessions.get(sessionId);
+  }
+
+  private static boolean isTopicMessage(Message<?> message) {
+    MessageHeaders headers = message.getHeaders();
+    String destination = SimpMessageHeaderAccessor.getDestination(headers);
+    return SimpMessageHeaderAccessor.getMessageType(headers) == SimpMessageType.MESSAGE
+        && destination != null
+        && destination.startsWith("/topic/");
+  }
+
+  private long countSlowSessions() {
+    return sessions.values().stream().filter(SessionState::isSlow).count();
+  }
+
+  private int maxBacklog() {
+    return sessions.values().stream().mapToInt(s -> s.backlog.get()).max().orElse(0);
+  }
+
+  private class SessionState {
+    private final AtomicInteger backlog = new AtomicInteger();
+    // 0 while no send is in progress
+    private volatile long sendStartedAt;
+    private volatile boolean lastSendSlow;
+
+    /**
+     * Stuck in a send, or the last send was slow and frames are still waiting behind it. A session
+     * that only ever sends slowly thus gets one frame per send, not every frame offered while a
+     * send has just started.
+     */
+    boolean isSlow() {
+      long started = sendStartedAt;
+      return (started != 0 && System.nanoTime() - started > slowAfterNanos)
+          || (lastSendSlow && backlog.get() > 0);
+    }
+  }
+
+  /** Only one send runs at a time, Spring's concurrent session decorator sits in front of it */
+  private class TimedSession extends WebSocketSessionDecorator {
+
+    private final SessionState state;
+
+    TimedSession(WebSocketSession delegate, SessionState state) {
+      super(delegate);
+      this.state = state;
+    }
+
+    @Override
+    public void sendMessage(org.springframework.web.socket.WebSocketMessage<?> message)
+        throws IOException {
+      long started = System.nanoTime();
+      state.sendStartedAt = started;
+      try {
+        super.sendMessage(message);
+      } finally {
+        long elapsed = System.nanoTime() - started;
+        state.sendStartedAt = 0;
+        state.lastSendSlow = elapsed > slowAfterNanos;
+        sendTimer.record(elapsed, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+}
@@ -0,0 +1,22 @@
+-- Indexes matching the access paths of TaskRepository and TaskService.
+-- Every listing sorts by a timestamp with id as tie-breaker, so the composite indexes end in
+-- (timestamp, id) and can serve both offset pages and keyset seeks in either direction.
+
+-- getAllTasks and keyset listings sorted by creation date
+CREATE INDEX idx_tasks_created_at ON tasks (created_at, id);
+
+-- Default sort of search and the scroll endpoints
+CREATE INDEX idx_tasks_updated_at ON tasks (updated_at, id);
+
+-- findByAssignedToId, search by assignee (IS NULL for unassigned) and the assigned_to foreign key
+CREATE INDEX idx_tasks_assigned_to_updated_at ON tasks (assigned_to, updated_at, id);
+
+-- findByCreatedById and the created_by foreign key
+CREATE INDEX idx_tasks_created_by_updated_at ON tasks (created_by, updated_at, id);
+
+-- findByStatus and search by status, the board columns
+CREATE INDEX idx_tasks_status_updated_at ON tasks (status, updated_at, id);
+
+-- Substring title search: lower(title) LIKE '%term%' cannot use a B-tree, a trigram index can
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_tasks_title_trgm ON tasks USING gin (lower(title) gin_trgm_ops);
@@ -0,0 +1,3 @@
+-- Task ids are allocated by Hibernate in blocks of 50 (pooled optimizer) so inserts can be batched.
+-- The sequence must step by the same amount; rows inserted with the column default stay unique.
+ALTER SEQUENCE tasks_id_seq INCREMENT BY 50;
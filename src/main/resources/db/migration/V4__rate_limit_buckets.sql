@@ -0,0 +1,9 @@
+-- Token buckets shared by all nodes when kanban.rate-limit.backend is postgres.
+-- State is bucket4j's serialized bucket; rows idle for a refill period are full again and deleted.
+CREATE TABLE rate_limit_buckets (
+    id         VARCHAR(255) PRIMARY KEY,
+    state      BYTEA        NOT NULL,
+    updated_at TIMESTAMPTZ  NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_rate_limit_buckets_updated_at ON rate_limit_buckets (updated_at);
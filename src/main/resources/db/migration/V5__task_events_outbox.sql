@@ -0,0 +1,14 @@
+-- Outbox of task change events, written in the same transaction as the change when
+-- kanban.websocket.outbox.enabled is set. Rows still unpublished after a grace period are sent
+-- by the relay, so a crash between commit and broadcast does not lose them.
+CREATE TABLE task_events (
+    id           BIGSERIAL PRIMARY KEY,
+    type         VARCHAR(20) NOT NULL,
+    task_id      BIGINT      NOT NULL,
+    payload      JSONB,
+    created_at   TIMESTAMPTZ NOT NULL DEFAULT now(),
+    published_at TIMESTAMPTZ
+);
+
+CREATE INDEX idx_task_events_unpublished ON task_events (id) WHERE published_at IS NULL;
+CREATE INDEX idx_task_events_published_at ON task_events (published_at);
@@ -0,0 +1,2 @@
+-- State before the change, used to route an event to the topics the task is leaving.
+ALTER TABLE task_events ADD COLUMN previous JSONB;
@@ -0,0 +1,9 @@
+-- Task event batches too large for a NOTIFY payload. The sending node stores the batch here and
+-- notifies only its id; rows are read once by each peer and deleted after a few minutes.
+CREATE TABLE task_event_spill (
+    id         BIGSERIAL PRIMARY KEY,
+    payload    TEXT        NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_task_event_spill_created_at ON task_event_spill (created_at);
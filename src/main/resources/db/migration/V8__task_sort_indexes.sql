@@ -0,0 +1,13 @@
+-- Indexes for the remaining sorts search accepts. Offset pages break ties by id, so these end in
+-- (column, id) like the timestamp indexes of V2.
+
+-- Search sorted by title, across all tasks and within a board column
+CREATE INDEX idx_tasks_title ON tasks (title, id);
+CREATE INDEX idx_tasks_status_title ON tasks (status, title, id);
+
+-- Search sorted by priority, across all tasks and within a board column
+CREATE INDEX idx_tasks_priority ON tasks (priority, id);
+CREATE INDEX idx_tasks_status_priority ON tasks (status, priority, id);
+
+-- Search sorted by status, the board columns one after another
+CREATE INDEX idx_tasks_status ON tasks (status, id);
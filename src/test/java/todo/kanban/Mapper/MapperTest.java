@@ -9,6 +9,7 @@ import todo.kanban.model.Task;
 import todo.kanban.model.TaskPriority;
 import todo.kanban.model.TaskStatus;
 import todo.kanban.model.User;
+import todo.kanban.repository.TaskView;
 
 class MapperTest {
 
@@ -69,6 +70,37 @@ class MapperTest {
     assertEquals(task.getAssignedTo().getId(), dto.getAssignedTo());
   }
 
+  @Test
+  void toDtoFromView() {
+    // Given
+    TaskView view =
+        new TaskView(
+            1L,
+            "Test Task",
+            "Test Description",
+            TaskStatus.DONE,
+            TaskPriority.LOW,
+            1L,
+            "creator",
+            2L,
+            "assignee",
+            null,
+            null,
+            3L);
+
+    // When
+    TaskDTO.Response dto = mapper.toDto(view);
+
+    // Then
+    assertEquals(view.id(), dto.getId());
+    assertEquals(view.title(), dto.getTitle());
+    assertEquals(view.status(), dto.getStatus());
+    assertEquals(view.createdByUsername(), dto.getCreatedByUsername());
+    assertEquals(view.assignedTo(), dto.getAssignedTo());
+    assertEquals(view.assignedToUsername(), dto.getAssignedToUsername());
+    assertEquals(view.version(), dto.getVersion());
+  }
+
   @Test
   void updateEntityFromDto() {
     // Given
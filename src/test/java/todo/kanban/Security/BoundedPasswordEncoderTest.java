@@ -0,0 +1,119 @@
+package todo.kanban.Security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import todo.kanban.exception.ServiceBusyException;
+import todo.kanban.security.BoundedPasswordEncoder;
+
+class BoundedPasswordEncoderTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private BoundedPasswordEncoder encoder;
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    if (encoder != null) {
+      encoder.destroy();
+    }
+  }
+
+  @Test
+  void encodeAndMatchOnThePool() {
+    encoder =
+        new BoundedPasswordEncoder(
+            new BCryptPasswordEncoder(4), 1, 1, Duration.ofSeconds(5), meterRegistry);
+
+    String hash = encoder.encode("secret");
+
+    assertTrue(encoder.matches("secret", hash));
+    assertFalse(encoder.matches("wrong", hash));
+    assertEquals(
+        2, meterRegistry.get("kanban.password.hash").tag("operation", "matches").timer().count());
+  }
+
+  @Test
+  void upgradeHashesMadeAtALowerCost() {
+    String weakHash = new BCryptPasswordEncoder(4).encode("secret");
+    encoder =
+        new BoundedPasswordEncoder(
+            new BCryptPasswordEncoder(6), 1, 1, Duration.ofSeconds(5), meterRegistry);
+
+    assertTrue(encoder.upgradeEncoding(weakHash));
+    assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+  }
+
+  @Test
+  void rejectAtOnceWhenQueueIsFull() throws Exception {
+    encoder = new BoundedPasswordEncoder(blocking(), 1, 1, Duration.ofSeconds(30), meterRegistry);
+    // one call hashing, one queued
+    CompletableFuture.runAsync(() -> encoder.encode("first"));
+    CompletableFuture.runAsync(() -> encoder.encode("second"));
+    awaitQueued(1);
+
+    long started = System.nanoTime();
+    assertThrows(ServiceBusyException.class, () -> encoder.encode("third"));
+
+    assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(1));
+    assertEquals(
+        1,
+        meterRegistry
+            .get("kanban.password.hash.rejected")
+            .tag("reason", "queue_full")
+            .counter()
+            .count());
+  }
+
+  @Test
+  void giveUpAfterTimeout() {
+    encoder = new BoundedPasswordEncoder(blocking(), 1, 1, Duration.ofMillis(100), meterRegistry);
+
+    assertThrows(ServiceBusyException.class, () -> encoder.encode("slow"));
+    assertEquals(
+        1,
+        meterRegistry
+            .get("kanban.password.hash.rejected")
+            .tag("reason", "timeout")
+            .counter()
+            .count());
+  }
+
+  private PasswordEncoder blocking() {
+    return new PasswordEncoder() {
+      @Override
+      public String encode(CharSequence rawPassword) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return rawPassword.toString();
+      }
+
+      @Override
+      public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return encode(rawPassword).equals(encodedPassword);
+      }
+    };
+  }
+
+  private void awaitQueued(int expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (meterRegistry.get("kanban.password.hash.queue").gauge().value() < expected) {
+      if (System.currentTimeMillis() > deadline) {
+        fail("Work was not queued within 5 seconds");
+      }
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package todo.kanban.Security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import todo.kanban.KanbanApplication;
+
+/** Runs two application contexts against one database and checks they share one limit. */
+@Testcontainers
+class DistributedRateLimitIntegrationTest {
+
+  private static final int CAPACITY = 10;
+  // the default kanban.rate-limit.sync-tokens
+  private static final int SYNC_TOKENS = 10;
+
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:15-alpine")
+          .withDatabaseName("kanban_test")
+          .withUsername("test")
+          .withPassword("test");
+
+  private static final HttpClient client = HttpClient.newHttpClient();
+
+  private ConfigurableApplicationContext nodeA;
+  private ConfigurableApplicationContext nodeB;
+
+  @BeforeAll
+  static void startDatabase() {
+    postgres.start();
+  }
+
+  @AfterAll
+  static void stopDatabase() {
+    postgres.stop();
+  }
+
+  @AfterEach
+  void stopNodes() {
+    if (nodeA != null) {
+      // both nodes draw from the same bucket, empty it for the next test
+      nodeA.getBean(JdbcTemplate.class).update("DELETE FROM rate_limit_buckets");
+      nodeA.close();
+    }
+    if (nodeB != null) {
+      nodeB.close();
+    }
+  }
+
+  @Test
+  void limitIsGlobalAcrossNodes() throws Exception {
+    // sync every request so the count is exact
+    startNodes(0);
+    int rejected = 0;
+    // Same client alternating between nodes; either node alone would allow all of these
+    for (int i = 0; i < CAPACITY + 4; i++) {
+      int status = get(i % 2 == 0 ? nodeA : nodeB, "/api/tasks/1");
+      if (status == 429) {
+        rejected++;
+      } else {
+        assertTrue(i < CAPACITY, "request " + i + " passed beyond the shared limit");
+      }
+    }
+
+    assertEquals(4, rejected);
+  }
+
+  @Test
+  void limitIsGlobalWithinTheSyncOverdraft() throws Exception {
+    startNodes(SYNC_TOKENS);
+    int allowed = 0;
+    // Twice what the two nodes may let through together
+    for (int i = 0; i < 2 * (CAPACITY + 2 * SYNC_TOKENS); i++) {
+      if (get(i % 2 == 0 ? nodeA : nodeB, "/api/tasks/1") != 429) {
+        allowed++;
+      }
+    }
+
+    // Each node may spend up to sync-tokens locally beyond what the shared bucket holds
+    assertTrue(allowed >= CAPACITY, "only " + allowed + " requests allowed");
+    assertTrue(
+        allowed <= CAPACITY + 2 * SYNC_TOKENS, allowed + " requests passed the shared limit");
+  }
+
+  private void startNodes(int syncTokens) {
+    nodeA = startNode(syncTokens);
+    nodeB = startNode(syncTokens);
+  }
+
+  private static int get(ConfigurableApplicationContext node, String path) throws Exception {
+    String port = node.getEnvironment().getProperty("local.server.port");
+    HttpRequest request =
+        HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+    return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+  }
+
+  private static ConfigurableApplicationContext startNode(int syncTokens) {
+    return new SpringApplicationBuilder(KanbanApplication.class)
+        .profiles("test")
+        .run(
+            "--server.port=0",
+            "--spring.datasource.url=" + postgres.getJdbcUrl(),
+            "--spring.datasource.username=" + postgres.getUsername(),
+            "--spring.datasource.password=" + postgres.getPassword(),
+            // both nodes share the schema Flyway created, Hibernate must not recreate it
+            "--spring.jpa.hibernate.ddl-auto=none",
+            "--kanban.rate-limit.backend=postgres",
+            "--kanban.rate-limit.capacity=" + CAPACITY,
+            "--kanban.rate-limit.sync-tokens=" + syncTokens);
+  }
+}
@@ -1,35 +1,31 @@
 package todo.kanban.Security;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
 
-import java.util.Collections;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.Authentication;
 import org.springframework.test.util.ReflectionTestUtils;
+import todo.kanban.security.JwtPrincipal;
 import todo.kanban.security.JwtUtils;
-import todo.kanban.service.UserDetailsServiceImpl;
 
-@ExtendWith(MockitoExtension.class)
 class JwtUtilsTest {
 
-  @Mock private UserDetailsServiceImpl userDetailsService;
+  private JwtUtils jwtUtils;
 
-  @InjectMocks private JwtUtils jwtUtils;
-
-  @Test
-  void generateTokenAndValidateToken() {
+  @BeforeEach
+  void setUp() {
     // Set up JWT properties
+    jwtUtils = new JwtUtils();
     ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret123456789012345678901234567890");
     ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000L); // 1 minute
+    jwtUtils.init();
+  }
 
+  @Test
+  void generateTokenAndValidateToken() {
     // Generate a token
-    String token = jwtUtils.generateToken("testuser");
+    String token = jwtUtils.generateToken(1L, "testuser");
 
     // Verify token is valid
     assertTrue(jwtUtils.validateToken(token));
@@ -40,19 +36,27 @@ class JwtUtilsTest {
 
   @Test
   void getAuthentication() {
-    // Set up JWT properties
-    ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret123456789012345678901234567890");
-    ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000L); // 1 minute
+    String token = jwtUtils.generateToken(42L, "testuser");
 
-    // Generate a token
-    String token = jwtUtils.generateToken("testuser");
+    // Principal is built from the signed claims alone
+    Authentication authentication = jwtUtils.authenticate(token);
+
+    assertNotNull(authentication);
+    assertEquals("testuser", authentication.getName());
+    assertEquals(new JwtPrincipal(42L, "testuser"), authentication.getPrincipal());
+    assertTrue(authentication.isAuthenticated());
+  }
+
+  @Test
+  void rejectTamperedAndExpiredTokens() {
+    String token = jwtUtils.generateToken(42L, "testuser");
+    String tampered = token.substring(0, token.length() - 2) + "xx";
 
-    // Set up user details
-    UserDetails userDetails = new User("testuser", "password", Collections.emptyList());
-    when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
+    ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", -1000L);
+    String expired = jwtUtils.generateToken(42L, "testuser");
 
-    // Verify authentication
-    assertNotNull(jwtUtils.getAuthentication(token));
-    assertEquals("testuser", jwtUtils.getAuthentication(token).getName());
+    assertNull(jwtUtils.authenticate(tampered));
+    assertNull(jwtUtils.authenticate(expired));
+    assertNull(jwtUtils.authenticate("not a token"));
   }
 }
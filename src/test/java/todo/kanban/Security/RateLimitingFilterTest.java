@@ -0,0 +1,105 @@
+package todo.kanban.Security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import todo.kanban.security.JwtPrincipal;
+import todo.kanban.security.RateLimitingFilter;
+
+class RateLimitingFilterTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private RateLimitingFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    filter =
+        new RateLimitingFilter(
+            10, Duration.ofMinutes(1), 2, Optional.empty(), 0, Duration.ZERO, meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void searchCostsMoreThanSingleTaskAndHeadersReportRemaining() throws Exception {
+    authenticateAs("alice");
+
+    MockHttpServletResponse single = perform("GET", "/api/tasks/1", "10.0.0.1");
+    MockHttpServletResponse search = perform("GET", "/api/tasks/search", "10.0.0.1");
+
+    assertEquals("10", single.getHeader("RateLimit-Limit"));
+    assertEquals("9", single.getHeader("RateLimit-Remaining"));
+    assertEquals("4", search.getHeader("RateLimit-Remaining"));
+  }
+
+  @Test
+  void rejectWhenBucketIsEmpty() throws Exception {
+    authenticateAs("alice");
+    perform("DELETE", "/api/tasks/batch", "10.0.0.1");
+
+    MockHttpServletResponse response = perform("GET", "/api/tasks/1", "10.0.0.1");
+
+    assertEquals(429, response.getStatus());
+    assertNotNull(response.getHeader("Retry-After"));
+    assertEquals(
+        1.0, meterRegistry.get("kanban.rate_limit.rejected").tag("key", "user").counter().count());
+  }
+
+  @Test
+  void keyByUserWhenAuthenticated() throws Exception {
+    authenticateAs("alice");
+    perform("DELETE", "/api/tasks/batch", "10.0.0.1");
+
+    // Same user from another address shares the bucket, another user does not
+    assertEquals(429, perform("GET", "/api/tasks/1", "10.0.0.2").getStatus());
+    authenticateAs("bob");
+    assertEquals(200, perform("GET", "/api/tasks/1", "10.0.0.1").getStatus());
+  }
+
+  @Test
+  void ignoreForwardedForAndBoundTheStore() throws Exception {
+    for (int i = 0; i < 50; i++) {
+      MockHttpServletRequest request = request("GET", "/api/tasks/1", "10.0.1." + i);
+      request.addHeader("X-Forwarded-For", "192.168.0." + i);
+      filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+
+    double buckets = meterRegistry.get("kanban.rate_limit.buckets").gauge().value();
+    assertTrue(buckets <= 2, "bucket store exceeded its bound: " + buckets);
+  }
+
+  private void authenticateAs(String username) {
+    SecurityContextHolder.getContext()
+        .setAuthentication(
+            new UsernamePasswordAuthenticationToken(
+                new JwtPrincipal(1L, username), "", Collections.emptyList()));
+  }
+
+  private MockHttpServletResponse perform(String method, String uri, String address)
+      throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request(method, uri, address), response, new MockFilterChain());
+    return response;
+  }
+
+  private static MockHttpServletRequest request(String method, String uri, String address) {
+    MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+    request.setRemoteAddr(address);
+    return request;
+  }
+}
@@ -0,0 +1,189 @@
+package todo.kanban;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Drives the REST API at a fixed concurrency with platform and then virtual threads and prints
+ * throughput and p99 latency for each. Too slow for every build, run it with
+ * {@code -Dkanban.loadtest=true}. The database is a container unless {@code
+ * -Dkanban.loadtest.jdbc-url} names an existing one, whose credentials are then read from {@code
+ * kanban.loadtest.username} and {@code kanban.loadtest.password}.
+ */
+@Testcontainers
+@EnabledIfSystemProperty(named = "kanban.loadtest", matches = "true")
+class ThreadModeLoadTest {
+
+  private static final int CLIENTS = 400;
+  private static final int REQUESTS_PER_CLIENT = 50;
+  private static final String JDBC_URL = System.getProperty("kanban.loadtest.jdbc-url");
+
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:15-alpine")
+          .withDatabaseName("kanban_test")
+          .withUsername("test")
+          .withPassword("test");
+
+  // With platform threads the clients queue in Tomcat's accept backlog, as long as the server
+  // would let them wait for a database connection
+  private final HttpClient http =
+      HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+
+  @BeforeAll
+  static void startDatabase() {
+    if (JDBC_URL == null) {
+      postgres.start();
+    }
+  }
+
+  @AfterAll
+  static void stopDatabase() {
+    if (JDBC_URL == null) {
+      postgres.stop();
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void mixedReadsAndWrites(boolean virtualThreads) throws Exception {
+    try (ConfigurableApplicationContext node = startNode(virtualThreads)) {
+      String baseUrl =
+          "http://localhost:"
+              + ((WebServerApplicationContext) node).getWebServer().getPort()
+              + "/api";
+      String token = register(baseUrl, "load" + virtualThreads);
+
+      List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+      AtomicInteger busy = new AtomicInteger();
+      AtomicInteger failed = new AtomicInteger();
+      long started = System.nanoTime();
+      try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+        for (int c = 0; c < CLIENTS; c++) {
+          int client = c;
+          clients.submit(
+              () -> {
+                for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                  // one write for every four reads
+                  HttpRequest request =
+                      i % 5 == 0
+                          ? createTask(baseUrl, token, "Load " + client + "-" + i)
+                          : listTasks(baseUrl, token);
+                  long sent = System.nanoTime();
+                  int status = send(request);
+                  latencies.add(System.nanoTime() - sent);
+                  if (status == 503) {
+                    busy.incrementAndGet();
+                  } else if (status >= 500 || status < 0) {
+                    failed.incrementAndGet();
+                  }
+                }
+                return null;
+              });
+        }
+      }
+      Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+      List<Long> sorted = new ArrayList<>(latencies);
+      Collections.sort(sorted);
+      long p99 = sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+      System.out.printf(
+          "%s threads: %d requests in %d ms, %.0f req/s, p99 %d ms, %d answered 503%n",
+          virtualThreads ? "virtual" : "platform",
+          sorted.size(),
+          elapsed.toMillis(),
+          sorted.size() * 1000.0 / elapsed.toMillis(),
+          Duration.ofNanos(p99).toMillis(),
+          busy.get());
+
+      assertEquals(0, failed.get(), "requests failed with an error other than 503");
+    }
+  }
+
+  private ConfigurableApplicationContext startNode(boolean virtualThreads) {
+    return new SpringApplicationBuilder(KanbanApplication.class)
+        .profiles("test")
+        .run(
+            "--server.port=0",
+            "--spring.datasource.url=" + jdbcUrl(),
+            "--spring.datasource.username="
+                + System.getProperty("kanban.loadtest.username", postgres.getUsername()),
+            "--spring.datasource.password="
+                + System.getProperty("kanban.loadtest.password", postgres.getPassword()),
+            "--spring.jpa.hibernate.ddl-auto=none",
+            "--spring.jpa.show-sql=false",
+            "--spring.threads.virtual.enabled=" + virtualThreads,
+            "--kanban.rate-limit.capacity=1000000");
+  }
+
+  /**
+   * The migrated schema declares status and priority as PostgreSQL enums while the entity binds
+   * them as strings, so let the server infer the parameter types as it would for literals
+   */
+  private static String jdbcUrl() {
+    String url = JDBC_URL != null ? JDBC_URL : postgres.getJdbcUrl();
+    return url + (url.contains("?") ? "&" : "?") + "stringtype=unspecified";
+  }
+
+  private String register(String baseUrl, String username) throws Exception {
+    HttpRequest request =
+        HttpRequest.newBuilder(URI.create(baseUrl + "/auth/register"))
+            .header("Content-Type", "application/json")
+            .POST(
+                HttpRequest.BodyPublishers.ofString(
+                    "{\"username\":\""
+                        + username
+                        + "\",\"password\":\"password\",\"email\":\""
+                        + username
+                        + "@example.com\"}"))
+            .build();
+    String body = http.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    int start = body.indexOf("\"token\":\"") + 9;
+    return body.substring(start, body.indexOf('"', start));
+  }
+
+  private HttpRequest listTasks(String baseUrl, String token) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + "/tasks?size=20"))
+        .header("Authorization", "Bearer " + token)
+        .GET()
+        .build();
+  }
+
+  private HttpRequest createTask(String baseUrl, String token, String title) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + "/tasks"))
+        .header("Authorization", "Bearer " + token)
+        .header("Content-Type", "application/json")
+        .POST(
+            HttpRequest.BodyPublishers.ofString(
+                "{\"title\":\"" + title + "\",\"status\":\"TO_DO\",\"priority\":\"MED\"}"))
+        .build();
+  }
+
+  private int send(HttpRequest request) {
+    try {
+      return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    } catch (Exception e) {
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package todo.kanban.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import todo.kanban.KanbanApplication;
+import todo.kanban.dto.TaskDTO;
+import todo.kanban.model.TaskStatus;
+
+/** Runs two application contexts against one database and checks evictions reach the peer. */
+@Testcontainers
+class ClusterCacheIntegrationTest {
+
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:15-alpine")
+          .withDatabaseName("kanban_test")
+          .withUsername("test")
+          .withPassword("test");
+
+  private static ConfigurableApplicationContext nodeA;
+  private static ConfigurableApplicationContext nodeB;
+
+  @BeforeAll
+  static void startNodes() {
+    postgres.start();
+    nodeA = startNode();
+    nodeB = startNode();
+  }
+
+  @AfterAll
+  static void stopNodes() {
+    if (nodeA != null) {
+      nodeA.close();
+    }
+    if (nodeB != null) {
+      nodeB.close();
+    }
+    postgres.stop();
+  }
+
+  @Test
+  void evictionOnOneNodeReachesTheOther() {
+    Cache tasksOnA = nodeA.getBean(CacheManager.class).getCache("tasks");
+    Cache tasksOnB = nodeB.getBean(CacheManager.class).getCache("tasks");
+    tasksOnA.put(42L, "fresh");
+    tasksOnB.put(42L, "stale");
+
+    tasksOnA.evict(42L);
+
+    awaitTrue(() -> tasksOnB.get(42L) == null);
+  }
+
+  @Test
+  void taskChangeEvictsOnlyMatchingListingsOnTheOtherNode() {
+    Cache listingsOnB = nodeB.getBean(CacheManager.class).getCache(TaskQueryCache.CACHE_NAME);
+    PageRequest page = PageRequest.of(0, 10);
+    TaskQueryKey done = TaskQueryKey.search(null, TaskStatus.DONE, null, null, page);
+    TaskQueryKey toDo = TaskQueryKey.search(null, TaskStatus.TO_DO, null, null, page);
+    listingsOnB.put(done, "done page");
+    listingsOnB.put(toDo, "to do page");
+
+    nodeA
+        .getBean(TaskQueryCache.class)
+        .evictMatching(
+            TaskDTO.Response.builder().id(7L).title("Ship it").status(TaskStatus.DONE).build());
+
+    awaitTrue(() -> listingsOnB.get(done) == null);
+    assertNotNull(listingsOnB.get(toDo));
+  }
+
+  @Test
+  void largeBatchesAreSplitByPayloadSize() {
+    Cache listingsOnB = nodeB.getBean(CacheManager.class).getCache(TaskQueryCache.CACHE_NAME);
+    PageRequest page = PageRequest.of(0, 10);
+    TaskQueryKey done = TaskQueryKey.search(null, TaskStatus.DONE, null, null, page);
+    listingsOnB.put(done, "done page");
+
+    // 100 three-byte characters per title: 25 states no longer fit one notification
+    String title = "€".repeat(100);
+    TaskDTO.Response[] states =
+        IntStream.rangeClosed(1, 60)
+            .mapToObj(
+                id ->
+                    TaskDTO.Response.builder()
+                        .id((long) id)
+                        .title(title)
+                        .status(id == 60 ? TaskStatus.DONE : TaskStatus.TO_DO)
+                        .build())
+            .toArray(TaskDTO.Response[]::new);
+    nodeA.getBean(TaskQueryCache.class).evictMatching(states);
+
+    awaitTrue(() -> listingsOnB.get(done) == null);
+  }
+
+  private static ConfigurableApplicationContext startNode() {
+    return new SpringApplicationBuilder(KanbanApplication.class)
+        .profiles("test")
+        .run(
+            "--server.port=0",
+            "--spring.datasource.url=" + postgres.getJdbcUrl(),
+            "--spring.datasource.username=" + postgres.getUsername(),
+            "--spring.datasource.password=" + postgres.getPassword(),
+            // both nodes share the schema Flyway created, Hibernate must not recreate it
+            "--spring.jpa.hibernate.ddl-auto=none",
+            "--kanban.cluster.enabled=true");
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (!condition.getAsBoolean()) {
+      if (System.currentTimeMillis() > deadline) {
+        fail("Condition not met within 10 seconds");
+      }
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        fail("Interrupted while waiting");
+      }
+    }
+  }
+}
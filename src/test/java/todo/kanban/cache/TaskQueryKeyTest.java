@@ -0,0 +1,66 @@
+package todo.kanban.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import todo.kanban.dto.TaskDTO;
+import todo.kanban.model.TaskPriority;
+import todo.kanban.model.TaskStatus;
+
+class TaskQueryKeyTest {
+
+  @Test
+  void differentPagesNeverShareAKey() {
+    // page 1/size 10 and page 2/size 9 used to collide on pageNumber + pageSize
+    TaskQueryKey first = TaskQueryKey.all(PageRequest.of(1, 10));
+    TaskQueryKey second = TaskQueryKey.all(PageRequest.of(2, 9));
+
+    assertNotEquals(first, second);
+  }
+
+  @Test
+  void keyIncludesFilterAndSort() {
+    PageRequest byTitle = PageRequest.of(0, 10, Sort.by("title"));
+    PageRequest byUpdatedAt = PageRequest.of(0, 10, Sort.by("updatedAt"));
+
+    assertEquals(
+        TaskQueryKey.search("Deploy", TaskStatus.TO_DO, null, null, byTitle),
+        TaskQueryKey.search("deploy", TaskStatus.TO_DO, null, null, byTitle));
+    assertNotEquals(
+        TaskQueryKey.search(null, TaskStatus.TO_DO, null, null, byTitle),
+        TaskQueryKey.search(null, TaskStatus.DONE, null, null, byTitle));
+    assertNotEquals(
+        TaskQueryKey.search(null, null, null, null, byTitle),
+        TaskQueryKey.search(null, null, null, null, byUpdatedAt));
+    assertNotEquals(TaskQueryKey.assignedTo(2L, byTitle), TaskQueryKey.createdBy(2L, byTitle));
+  }
+
+  @Test
+  void matchesOnlyTasksPassingTheFilter() {
+    TaskDTO.Response task =
+        TaskDTO.Response.builder()
+            .id(1L)
+            .title("Deploy release")
+            .status(TaskStatus.IN_PROGRESS)
+            .priority(TaskPriority.HIGH)
+            .createdBy(1L)
+            .assignedTo(2L)
+            .build();
+    PageRequest page = PageRequest.of(0, 10);
+
+    assertTrue(TaskQueryKey.all(page).matches(task));
+    assertTrue(
+        TaskQueryKey.search("release", TaskStatus.IN_PROGRESS, TaskPriority.HIGH, 2L, page)
+            .matches(task));
+    assertTrue(TaskQueryKey.createdBy(1L, page).matches(task));
+
+    assertFalse(TaskQueryKey.search(null, TaskStatus.DONE, null, null, page).matches(task));
+    assertFalse(TaskQueryKey.search(null, null, TaskPriority.LOW, null, page).matches(task));
+    assertFalse(TaskQueryKey.search("kickoff", null, null, null, page).matches(task));
+    assertFalse(TaskQueryKey.assignedTo(3L, page).matches(task));
+    assertFalse(TaskQueryKey.search(null, null, null, 0L, page).matches(task));
+    assertFalse(TaskQueryKey.createdBy(2L, page).matches(task));
+  }
+}
@@ -44,10 +44,14 @@ class TaskControllerIntegrationTest {
   @Autowired private JwtUtils jwtUtils;
 
   private String getAuthToken() throws Exception {
+    return getAuthToken("testuser");
+  }
+
+  private String getAuthToken(String username) throws Exception {
     AuthDTO.RegisterRequest registerRequest = new AuthDTO.RegisterRequest();
-    registerRequest.setUsername("testuser");
+    registerRequest.setUsername(username);
     registerRequest.setPassword("password");
-    registerRequest.setEmail("test@example.com");
+    registerRequest.setEmail(username + "@example.com");
 
     // Try to register or login
     try {
@@ -66,7 +70,7 @@ class TaskControllerIntegrationTest {
     } catch (Exception e) {
       // User might already exist, try login
       AuthDTO.LoginRequest loginRequest = new AuthDTO.LoginRequest();
-      loginRequest.setUsername("testuser");
+      loginRequest.setUsername(username);
       loginRequest.setPassword("password");
 
       MvcResult result =
@@ -179,6 +183,100 @@ class TaskControllerIntegrationTest {
         .andExpect(status().isNotFound());
   }
 
+  @Test
+  void batchOperationsTest() throws Exception {
+    String token = getAuthToken("batchuser");
+
+    // 1. Create three tasks in one request
+    String createJson =
+        "{\"tasks\": [{\"title\": \"Batch one\"}, {\"title\": \"Batch two\"},"
+            + " {\"title\": \"Batch three\", \"priority\": \"HIGH\"}]}";
+
+    MvcResult createResult =
+        mockMvc
+            .perform(
+                post("/api/tasks/batch")
+                    .header("Authorization", "Bearer " + token)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(createJson))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.results", hasSize(3)))
+            .andExpect(jsonPath("$.results[*].outcome", everyItem(is("CREATED"))))
+            .andExpect(jsonPath("$.results[2].task.priority", is("HIGH")))
+            .andReturn();
+
+    TaskDTO.BatchResponse created =
+        objectMapper.readValue(
+            createResult.getResponse().getContentAsString(), TaskDTO.BatchResponse.class);
+    Long first = created.getResults().get(0).getId();
+    Long second = created.getResults().get(1).getId();
+    Long third = created.getResults().get(2).getId();
+
+    // 2. A stale version on the second item rolls back the whole batch and is reported
+    String conflictingPatch =
+        "{\"tasks\": [{\"id\": "
+            + first
+            + ", \"version\": 0, \"updates\": {\"title\": \"Renamed\"}}, {\"id\": "
+            + second
+            + ", \"version\": 7, \"updates\": {\"title\": \"Renamed too\"}}]}";
+
+    mockMvc
+        .perform(
+            patch("/api/tasks/batch")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(conflictingPatch))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.failedIndex", is(1)))
+        .andExpect(jsonPath("$.failedTaskId", is(second.intValue())));
+
+    mockMvc
+        .perform(get("/api/tasks/{id}", first).header("Authorization", "Bearer " + token))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.title", is("Batch one")));
+
+    // 3. A valid batch patch applies every item
+    String patchJson =
+        "{\"tasks\": [{\"id\": "
+            + first
+            + ", \"version\": 0, \"updates\": {\"title\": \"Renamed\"}}, {\"id\": "
+            + second
+            + ", \"updates\": {\"status\": \"IN_PROGRESS\"}}]}";
+
+    mockMvc
+        .perform(
+            patch("/api/tasks/batch")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(patchJson))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.results[0].task.title", is("Renamed")))
+        .andExpect(jsonPath("$.results[0].task.version", is(1)))
+        .andExpect(jsonPath("$.results[1].task.status", is("IN_PROGRESS")));
+
+    // 4. Deleting an in-progress task fails the batch at that item
+    mockMvc
+        .perform(
+            delete("/api/tasks/batch")
+                .param("ids", first.toString(), second.toString(), third.toString())
+                .header("Authorization", "Bearer " + token))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.failedIndex", is(1)));
+
+    // 5. Delete the others in one request
+    mockMvc
+        .perform(
+            delete("/api/tasks/batch")
+                .param("ids", first.toString(), third.toString())
+                .header("Authorization", "Bearer " + token))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.results[*].outcome", everyItem(is("DELETED"))));
+
+    mockMvc
+        .perform(get("/api/tasks/{id}", third).header("Authorization", "Bearer " + token))
+        .andExpect(status().isNotFound());
+  }
+
   static class TestContainersInitializer
       implements ApplicationContextInitializer<ConfigurableApplicationContext> {
     @Override
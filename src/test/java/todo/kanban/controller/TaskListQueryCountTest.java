@@ -0,0 +1,213 @@
+package todo.kanban.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.support.TestPropertySourceUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import todo.kanban.model.Task;
+import todo.kanban.model.TaskPriority;
+import todo.kanban.model.TaskStatus;
+import todo.kanban.model.User;
+import todo.kanban.repository.TaskRepository;
+import todo.kanban.repository.UserRepository;
+
+/**
+ * Checks that every list endpoint issues the same number of SQL statements whatever the page size,
+ * i.e. the users shown on each task are fetched with the page and not one by one.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+@ContextConfiguration(initializers = TaskListQueryCountTest.TestContainersInitializer.class)
+@WithMockUser
+class TaskListQueryCountTest {
+
+  private static final int USERS = 5;
+  private static final int TASKS = 60;
+
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:15-alpine")
+          .withDatabaseName("kanban_test")
+          .withUsername("test")
+          .withPassword("test");
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private UserRepository userRepository;
+  @Autowired private TaskRepository taskRepository;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private CacheManager cacheManager;
+
+  private User user;
+
+  @BeforeEach
+  void seed() {
+    if (taskRepository.count() >= TASKS) {
+      user = userRepository.findByUsername("counter0").orElseThrow();
+      return;
+    }
+    List<User> users = new ArrayList<>();
+    for (int i = 0; i < USERS; i++) {
+      users.add(
+          userRepository.save(
+              User.builder()
+                  .username("counter" + i)
+                  .password("password")
+                  .email("counter" + i + "@example.com")
+                  .build()));
+    }
+    List<Task> tasks = new ArrayList<>();
+    for (int i = 0; i < TASKS; i++) {
+      tasks.add(
+          Task.builder()
+              .title("Counted task " + i)
+              .status(TaskStatus.values()[i % TaskStatus.values().length])
+              .priority(TaskPriority.values()[i % TaskPriority.values().length])
+              .createdBy(users.get(0))
+              .assignedTo(users.get(i % USERS))
+              .build());
+    }
+    taskRepository.saveAll(tasks);
+    user = users.get(0);
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @ValueSource(
+      strings = {
+        "/api/tasks",
+        "/api/tasks/search",
+        "/api/tasks/search?status=TO_DO",
+        "/api/tasks/assigned/{user}",
+        "/api/tasks/created/{user}",
+        "/api/tasks/scroll",
+        "/api/tasks/search/scroll",
+        "/api/tasks/assigned/{user}/scroll",
+        "/api/tasks/created/{user}/scroll"
+      })
+  void statementCountDoesNotGrowWithPageSize(String path) throws Exception {
+    // Both pages are smaller than every listing, so both also run the count query
+    long smallPage = statementsFor(path, 2);
+    long largePage = statementsFor(path, 10);
+
+    assertTrue(smallPage > 0, "statistics are not collected");
+    assertEquals(smallPage, largePage, path + " issues extra statements per row");
+  }
+
+  @Test
+  void graphQlUsersDoNotAddStatementsPerTask() throws Exception {
+    String users = "createdBy { id username } assignedTo { id username }";
+    long smallPage = graphQlStatementsFor("tasks(size: 2) { content { id " + users + " } }");
+    long largePage = graphQlStatementsFor("tasks(size: 50) { content { id " + users + " } }");
+
+    assertTrue(smallPage > 0, "statistics are not collected");
+    assertEquals(smallPage, largePage, "Task.createdBy and Task.assignedTo resolve per task");
+  }
+
+  @Test
+  void graphQlLoadsMissingUsernamesWithOneQuery() throws Exception {
+    // Without usernames in the selection the listing does not join the users, so the ids come
+    // back alone and the loader resolves the users of the whole page
+    String users = "createdBy { id } assignedTo { id }";
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    long statements = graphQlStatementsFor("tasks(size: 50) { content { id " + users + " } }");
+
+    assertEquals(1, userSummaryQueries(statistics), "users are not loaded in one IN query");
+    assertEquals(2, statements);
+  }
+
+  @Test
+  void graphQlCountsOnlyWhenTotalsAreSelected() throws Exception {
+    long withoutTotals =
+        graphQlStatementsFor("tasks(status: TO_DO) { content { id title status } }");
+    long withTotals =
+        graphQlStatementsFor("tasks(status: TO_DO) { content { id title status } totalPages }");
+
+    assertEquals(1, withoutTotals);
+    assertEquals(2, withTotals);
+  }
+
+  private long graphQlStatementsFor(String selection) throws Exception {
+    cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    mockMvc
+        .perform(
+            post("/graphql")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"query\": \"{ " + selection + " }\"}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.errors").doesNotExist());
+
+    return statistics.getPrepareStatementCount();
+  }
+
+  /** Executions of {@code UserRepository.findSummariesByIdIn} since the statistics were cleared */
+  private static long userSummaryQueries(Statistics statistics) {
+    long executions = 0;
+    for (String query : statistics.getQueries()) {
+      if (query.contains("UserSummary")) {
+        QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+        executions += queryStatistics.getExecutionCount();
+      }
+    }
+    return executions;
+  }
+
+  private long statementsFor(String path, int size) throws Exception {
+    String url =
+        path.replace("{user}", user.getId().toString())
+            + (path.contains("?") ? "&" : "?")
+            + "size="
+            + size;
+    cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    mockMvc.perform(get(url)).andExpect(status().isOk());
+
+    return statistics.getPrepareStatementCount();
+  }
+
+  static class TestContainersInitializer
+      implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+    @Override
+    public void initialize(@NotNull ConfigurableApplicationContext context) {
+      postgres.start();
+      TestPropertySourceUtils.addInlinedPropertiesToEnvironment(
+          context,
+          // migrated status and priority columns are enums, the entity binds them as strings
+          "spring.datasource.url=" + postgres.getJdbcUrl() + "&stringtype=unspecified",
+          "spring.datasource.username=" + postgres.getUsername(),
+          "spring.datasource.password=" + postgres.getPassword());
+    }
+  }
+}
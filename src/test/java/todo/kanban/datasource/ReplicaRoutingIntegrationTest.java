@@ -0,0 +1,118 @@
+package todo.kanban.datasource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import todo.kanban.KanbanApplication;
+import todo.kanban.service.TaskService;
+
+/**
+ * Runs the application against a primary and a second database standing in for its replica. The
+ * replica is a plain copy whose rows are changed directly, so the data tells which one answered.
+ */
+@Testcontainers
+class ReplicaRoutingIntegrationTest {
+
+  static PostgreSQLContainer<?> primary =
+      new PostgreSQLContainer<>("postgres:15-alpine")
+          .withDatabaseName("kanban_test")
+          .withUsername("test")
+          .withPassword("test");
+
+  static PostgreSQLContainer<?> replica =
+      new PostgreSQLContainer<>("postgres:15-alpine")
+          .withDatabaseName("kanban_test")
+          .withUsername("test")
+          .withPassword("test");
+
+  private static ConfigurableApplicationContext context;
+  private static TaskService taskService;
+
+  @BeforeAll
+  static void start() {
+    primary.start();
+    replica.start();
+    Flyway.configure()
+        .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+        .locations("classpath:db/migration")
+        .load()
+        .migrate();
+    new JdbcTemplate(
+            new DriverManagerDataSource(
+                replica.getJdbcUrl(), replica.getUsername(), replica.getPassword()))
+        .update("UPDATE tasks SET title = 'Replica copy' WHERE id = 1");
+
+    context =
+        new SpringApplicationBuilder(KanbanApplication.class)
+            .profiles("test")
+            .run(
+                "--server.port=0",
+                // migrated status and priority columns are enums, the entity binds them as strings
+                "--spring.datasource.url=" + primary.getJdbcUrl() + "&stringtype=unspecified",
+                "--spring.datasource.username=" + primary.getUsername(),
+                "--spring.datasource.password=" + primary.getPassword(),
+                // Flyway creates the schema, Hibernate must not recreate it on the primary only
+                "--spring.jpa.hibernate.ddl-auto=none",
+                "--kanban.datasource.replicas=" + replica.getJdbcUrl(),
+                "--kanban.datasource.read-your-writes-window=1m");
+    taskService = context.getBean(TaskService.class);
+  }
+
+  @AfterAll
+  static void stop() {
+    if (context != null) {
+      context.close();
+    }
+    replica.stop();
+    primary.stop();
+  }
+
+  @AfterEach
+  void clearUser() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void readOnlyTransactionsReadFromTheReplica() {
+    assertEquals("Replica copy", taskService.getTaskById(1L).getTitle());
+  }
+
+  @Test
+  void writesGoToThePrimaryAndTheWriterReadsItsOwnWrites() {
+    signIn("admin");
+    taskService.patchTask(2L, Map.of("title", "Patched on primary"));
+
+    signIn("john_dev");
+    assertEquals(0, search("Patched on primary"), "other users still read the replica");
+
+    // the replica's answer right after the write must not have been cached for everyone
+    signIn("admin");
+    assertEquals(1, search("Patched on primary"));
+  }
+
+  private static long search(String title) {
+    return taskService
+        .searchTasks(title, null, null, null, PageRequest.of(0, 10))
+        .getTotalElements();
+  }
+
+  private static void signIn(String username) {
+    SecurityContextHolder.getContext()
+        .setAuthentication(new UsernamePasswordAuthenticationToken(username, null, List.of()));
+  }
+}
@@ -0,0 +1,74 @@
+package todo.kanban.graphql;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.parser.Parser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class PersistedDocumentCacheTest {
+
+  private static final String QUERY = "{ tasks { content { id title status } } }";
+
+  private final PersistedDocumentCache cache =
+      new PersistedDocumentCache(10, new SimpleMeterRegistry());
+  private final AtomicInteger parses = new AtomicInteger();
+  private final Function<ExecutionInput, PreparsedDocumentEntry> parser =
+      input -> {
+        parses.incrementAndGet();
+        return new PreparsedDocumentEntry(Parser.parse(input.getQuery()));
+      };
+
+  @Test
+  void parseRepeatedQueryOnce() {
+    PreparsedDocumentEntry first = document(QUERY, null);
+    PreparsedDocumentEntry second = document(QUERY, null);
+
+    assertEquals(1, parses.get());
+    assertSame(first.getDocument(), second.getDocument());
+  }
+
+  @Test
+  void runPersistedQueryByHashOnceItWasSent() throws Exception {
+    String hash = sha256(QUERY);
+
+    PreparsedDocumentEntry unknown = document("", hash);
+    assertEquals("PersistedQueryNotFound", unknown.getErrors().get(0).getMessage());
+
+    document(QUERY, hash);
+    PreparsedDocumentEntry known = document("", hash);
+
+    assertFalse(known.hasErrors());
+    assertEquals(1, parses.get());
+  }
+
+  @Test
+  void rejectHashNotMatchingTheQuery() {
+    PreparsedDocumentEntry entry = document(QUERY, "0".repeat(64));
+
+    assertEquals("PersistedQueryIdInvalid", entry.getErrors().get(0).getMessage());
+    assertEquals(0, parses.get());
+  }
+
+  private PreparsedDocumentEntry document(String query, String hash) {
+    ExecutionInput.Builder input = ExecutionInput.newExecutionInput().query(query);
+    if (hash != null) {
+      input.extensions(Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash)));
+    }
+    return cache.getDocumentAsync(input.build(), parser).join();
+  }
+
+  private static String sha256(String text) throws Exception {
+    return HexFormat.of()
+        .formatHex(
+            MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+  }
+}
@@ -0,0 +1,89 @@
+package todo.kanban.graphql;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.GraphQLError;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.UnExecutableSchemaGenerator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class QueryCostCalculatorTest {
+
+  private static GraphQL graphQL;
+
+  @BeforeAll
+  static void buildSchema() throws IOException {
+    String sdl;
+    try (InputStream schema =
+        QueryCostCalculatorTest.class.getResourceAsStream("/graphql/schema.graphqls")) {
+      sdl = new String(schema.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    graphQL =
+        GraphQL.newGraphQL(
+                UnExecutableSchemaGenerator.makeUnExecutableSchema(new SchemaParser().parse(sdl)))
+            .instrumentation(
+                new MaxQueryComplexityInstrumentation(
+                    1000, new QueryCostCalculator(Map.of("Query.tasks", 10), 1, 100)))
+            .build();
+  }
+
+  @Test
+  void acceptQueryWithinBudget() {
+    // 10 + (1 + 2) * 10
+    String errors = errorsOf("{ tasks(size: 10) { content { id title } } }");
+
+    assertFalse(errors.contains("complexity"), errors);
+    assertFalse(errors.contains("page size"), errors);
+  }
+
+  @Test
+  void rejectPageLargerThanTheCap() {
+    assertTrue(
+        errorsOf("{ tasks(size: 100000) { content { id } } }")
+            .contains("Query.tasks page size must be between 1 and 100"));
+  }
+
+  @Test
+  void rejectPageSizeGivenAsVariable() {
+    ExecutionResult result =
+        graphQL.execute(
+            ExecutionInput.newExecutionInput()
+                .query("query($n: Int) { tasks(size: $n) { content { id } } }")
+                .variables(Map.of("n", 500))
+                .build());
+
+    assertTrue(messages(result).contains("page size"));
+  }
+
+  @Test
+  void aliasesAddUp() {
+    // 20 aliases of 10 + (1 + 2) * 100
+    String query =
+        IntStream.range(0, 20)
+            .mapToObj(i -> "a" + i + ": tasks(size: 100) { content { id title } }")
+            .collect(Collectors.joining(" ", "{ ", " }"));
+
+    assertTrue(errorsOf(query).contains("complexity"));
+  }
+
+  private static String errorsOf(String query) {
+    return messages(graphQL.execute(query));
+  }
+
+  private static String messages(ExecutionResult result) {
+    return result.getErrors().stream()
+        .map(GraphQLError::getMessage)
+        .collect(Collectors.joining("\n"));
+  }
+}
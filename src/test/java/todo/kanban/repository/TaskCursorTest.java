@@ -0,0 +1,33 @@
+package todo.kanban.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import todo.kanban.exception.IllegalOperationException;
+import todo.kanban.model.Task;
+
+class TaskCursorTest {
+
+  @Test
+  void encodeAndDecodeRoundTrip() {
+    Task task = new Task();
+    task.setId(42L);
+    task.setCreatedAt(LocalDateTime.of(2025, 5, 1, 10, 15, 30, 123456000));
+    task.setUpdatedAt(LocalDateTime.of(2025, 5, 2, 8, 0));
+
+    TaskCursor cursor = TaskCursor.after(task, "createdAt", Sort.Direction.DESC);
+    TaskCursor decoded = TaskCursor.decode(cursor.encode());
+
+    assertEquals(cursor, decoded);
+    assertEquals(task.getCreatedAt(), decoded.value());
+    assertEquals(42L, decoded.id());
+  }
+
+  @Test
+  void decodeRejectsForeignTokens() {
+    assertThrows(IllegalOperationException.class, () -> TaskCursor.decode("not a cursor"));
+    assertThrows(IllegalOperationException.class, () -> TaskCursor.decode("dGl0bGV8REVTQ3x4fDE"));
+  }
+}
@@ -0,0 +1,298 @@
+package todo.kanban.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.flywaydb.core.Flyway;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Named;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import todo.kanban.KanbanApplication;
+import todo.kanban.dto.TaskDTO;
+import todo.kanban.model.TaskStatus;
+import todo.kanban.service.TaskService;
+
+/**
+ * Seeds a million tasks, runs the TaskService reads against them and checks that none of the
+ * statements Hibernate issues for them is planned with a sequential scan of {@code tasks}.
+ *
+ * <p>The statements are captured with a {@link StatementInspector}, prepared as they are and
+ * explained with a sample value for each parameter type.
+ */
+@Testcontainers
+class TaskIndexUsageTest {
+
+  private static final int TASKS = 1_000_000;
+  private static final int USERS = 1_000;
+  private static final List<String> SORT_PROPERTIES =
+      List.of("id", "title", "status", "priority", "createdAt", "updatedAt");
+
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:15-alpine")
+          .withDatabaseName("kanban_test")
+          .withUsername("test")
+          .withPassword("test");
+
+  private static Connection connection;
+  private static ConfigurableApplicationContext context;
+  private static String titleTerm;
+  private static long taskId;
+  private static Map<String, String> sampleValues;
+
+  @BeforeAll
+  static void migrateAndSeed() throws SQLException {
+    postgres.start();
+    Flyway.configure()
+        .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+        .locations("classpath:db/migration")
+        .load()
+        .migrate();
+
+    connection =
+        DriverManager.getConnection(
+            postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(
+          "INSERT INTO users (username, password, email) SELECT 'user' || i, 'password', 'user' ||"
+              + " i || '@example.com' FROM generate_series(1, "
+              + USERS
+              + ") i");
+      statement.execute(
+          "INSERT INTO tasks (title, status, priority, created_by, assigned_to, created_at,"
+              + " updated_at) SELECT 'Task ' || md5(i::text), (ARRAY['TO_DO', 'IN_PROGRESS',"
+              + " 'DONE'])[1 + i % 3]::task_status, (ARRAY['LOW', 'MED', 'HIGH'])[1 + i %"
+              + " 3]::task_priority, 1 + i % "
+              + USERS
+              + ", CASE WHEN i % 10 = 0 THEN NULL ELSE 1 + (i * 7) % "
+              + USERS
+              + " END, now() - i * interval '1 second', now() - i * interval '1 second' + (i %"
+              + " 600) * interval '1 second' FROM generate_series(1, "
+              + TASKS
+              + ") i");
+      statement.execute("VACUUM ANALYZE tasks");
+      statement.execute("VACUUM ANALYZE users");
+      // Plan for the sample values, not for any value the parameters might take
+      statement.execute("SET plan_cache_mode = force_custom_plan");
+
+      try (ResultSet rs = statement.executeQuery("SELECT substr(md5('424242'), 3, 10)")) {
+        rs.next();
+        titleTerm = rs.getString(1);
+      }
+      try (ResultSet rs =
+          statement.executeQuery(
+              "SELECT id, updated_at FROM tasks ORDER BY updated_at DESC, id DESC OFFSET 500000"
+                  + " LIMIT 1")) {
+        rs.next();
+        taskId = rs.getLong(1);
+        sampleValues =
+            Map.of(
+                // user and task ids
+                "bigint", "42",
+                // page sizes and offsets
+                "integer", "10",
+                "text", "'%" + titleTerm + "%'",
+                "character varying", "'%" + titleTerm + "%'",
+                "task_status", "'DONE'",
+                "task_priority", "'HIGH'",
+                // keyset positions
+                "timestamp without time zone", "'" + rs.getTimestamp(2) + "'");
+      }
+    }
+
+    context =
+        new SpringApplicationBuilder(KanbanApplication.class)
+            .profiles("test")
+            .run(
+                "--server.port=0",
+                // migrated status and priority columns are enums, the entity binds them as strings
+                "--spring.datasource.url=" + postgres.getJdbcUrl() + "&stringtype=unspecified",
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                // Flyway created and seeded the schema, Hibernate must not recreate it
+                "--spring.jpa.hibernate.ddl-auto=none",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                    + CapturingInspector.class.getName());
+  }
+
+  @AfterAll
+  static void close() throws SQLException {
+    if (context != null) {
+      context.close();
+    }
+    if (connection != null) {
+      connection.close();
+    }
+    postgres.stop();
+  }
+
+  static Stream<Named<Consumer<TaskService>>> serviceReads() {
+    List<Named<Consumer<TaskService>>> reads = new ArrayList<>();
+    reads.add(read("getAllTasks page", tasks -> tasks.getAllTasks(PageRequest.of(10, 10), null)));
+    reads.add(read("getTaskById", tasks -> tasks.getTaskById(taskId)));
+    reads.add(
+        read(
+            "getTasksAssignedToUser",
+            tasks -> tasks.getTasksAssignedToUser(42L, PageRequest.of(0, 10))));
+    reads.add(
+        read(
+            "getTasksCreatedByUser",
+            tasks -> tasks.getTasksCreatedByUser(42L, PageRequest.of(0, 10))));
+    reads.add(
+        read(
+            "search unassigned",
+            tasks -> tasks.searchTasks(null, null, null, 0L, PageRequest.of(0, 10))));
+    reads.add(
+        read(
+            "search by title",
+            tasks -> tasks.searchTasks(titleTerm, null, null, null, PageRequest.of(0, 10))));
+    // The board columns in every order the search accepts, and the same orders unfiltered
+    for (String property : SORT_PROPERTIES) {
+      for (Sort.Direction direction : Sort.Direction.values()) {
+        PageRequest page = PageRequest.of(0, 10, Sort.by(direction, property));
+        String order = property + " " + direction.name().toLowerCase(Locale.ROOT);
+        reads.add(
+            read(
+                "search by status sorted by " + order,
+                tasks -> tasks.searchTasks(null, TaskStatus.DONE, null, null, page)));
+        reads.add(
+            read(
+                "search sorted by " + order,
+                tasks -> tasks.searchTasks(null, null, null, null, page)));
+      }
+    }
+    for (String property : List.of("updatedAt", "createdAt")) {
+      reads.add(
+          read(
+              "scroll by " + property,
+              tasks -> nextPage(tasks.scrollAllTasks(null, 10, property, "desc"), tasks)));
+      reads.add(
+          read(
+              "scroll by status and " + property,
+              tasks ->
+                  tasks.scrollSearchTasks(
+                      null,
+                      TaskStatus.DONE,
+                      null,
+                      null,
+                      tasks
+                          .scrollSearchTasks(
+                              null, TaskStatus.DONE, null, null, null, 10, property, "desc")
+                          .getNextCursor(),
+                      10,
+                      null,
+                      null)));
+      reads.add(
+          read(
+              "scroll assigned by " + property,
+              tasks ->
+                  tasks.scrollTasksAssignedToUser(
+                      42L,
+                      tasks
+                          .scrollTasksAssignedToUser(42L, null, 10, property, "desc")
+                          .getNextCursor(),
+                      10,
+                      null,
+                      null)));
+    }
+    return reads.stream();
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("serviceReads")
+  void readDoesNotScanTasksSequentially(Consumer<TaskService> read) throws SQLException {
+    CapturingInspector.STATEMENTS.clear();
+    read.accept(context.getBean(TaskService.class));
+    List<String> statements = new ArrayList<>(CapturingInspector.STATEMENTS);
+
+    assertFalse(statements.isEmpty(), "no statement was captured");
+    for (String sql : statements) {
+      List<String> plan = explain(sql);
+      assertTrue(
+          plan.stream().noneMatch(line -> line.contains("Seq Scan on tasks")),
+          () -> "sequential scan for\n" + sql + "\n" + String.join("\n", plan));
+    }
+  }
+
+  private static Named<Consumer<TaskService>> read(String name, Consumer<TaskService> read) {
+    return Named.of(name, read);
+  }
+
+  private static void nextPage(TaskDTO.CursorPage page, TaskService tasks) {
+    tasks.scrollAllTasks(page.getNextCursor(), 10, null, null);
+  }
+
+  /** EXPLAIN a statement with JDBC placeholders, binding a sample value of each parameter's type */
+  private static List<String> explain(String sql) throws SQLException {
+    StringBuilder numbered = new StringBuilder();
+    int parameter = 0;
+    for (char c : sql.toCharArray()) {
+      if (c == '?') {
+        numbered.append('$').append(++parameter);
+      } else {
+        numbered.append(c);
+      }
+    }
+
+    List<String> plan = new ArrayList<>();
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("PREPARE plan_check AS " + numbered);
+      try {
+        List<String> values = new ArrayList<>();
+        try (ResultSet rs =
+            statement.executeQuery(
+                "SELECT unnest(parameter_types)::text FROM pg_prepared_statements"
+                    + " WHERE name = 'plan_check'")) {
+          while (rs.next()) {
+            String type = rs.getString(1);
+            assertTrue(sampleValues.containsKey(type), "no sample value for a " + type);
+            values.add(sampleValues.get(type));
+          }
+        }
+        try (ResultSet rs =
+            statement.executeQuery(
+                "EXPLAIN EXECUTE plan_check"
+                    + (values.isEmpty() ? "" : "(" + String.join(", ", values) + ")"))) {
+          while (rs.next()) {
+            plan.add(rs.getString(1));
+          }
+        }
+      } finally {
+        statement.execute("DEALLOCATE plan_check");
+      }
+    }
+    return plan;
+  }
+
+  /** Collects the SQL of every statement Hibernate prepares */
+  public static class CapturingInspector implements StatementInspector {
+
+    static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public String inspect(String sql) {
+      STATEMENTS.add(sql);
+      return sql;
+    }
+  }
+}
@@ -2,14 +2,18 @@ package todo.kanban.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -20,16 +24,22 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import todo.kanban.cache.TaskQueryCache;
 import todo.kanban.dto.TaskDTO;
+import todo.kanban.exception.IllegalOperationException;
 import todo.kanban.exception.ResourceNotFoundException;
 import todo.kanban.mapper.Mapper;
 import todo.kanban.model.Task;
 import todo.kanban.model.TaskPriority;
 import todo.kanban.model.TaskStatus;
 import todo.kanban.model.User;
+import todo.kanban.repository.TaskChanges;
 import todo.kanban.repository.TaskRepository;
+import todo.kanban.repository.TaskUpdate;
+import todo.kanban.repository.TaskView;
 import todo.kanban.repository.UserRepository;
+import todo.kanban.security.JwtPrincipal;
+import todo.kanban.websocket.TaskDelta;
 
 @ExtendWith(MockitoExtension.class)
 class TaskServiceTest {
@@ -42,23 +52,23 @@ class TaskServiceTest {
 
   @Mock private WebSocketService webSocketService;
 
+  @Mock private TaskQueryCache taskQueryCache;
+
   @Mock private SecurityContext securityContext;
 
   @Mock private Authentication authentication;
 
-  @Mock private UserDetails userDetails;
-
   @InjectMocks private TaskService taskService;
 
   @Test
   void getAllTasks_whenStatusIsNull_returnAllTasks() {
     // Given
     Pageable pageable = PageRequest.of(0, 10);
-    List<Task> tasks = List.of(new Task(), new Task());
-    Page<Task> taskPage = new PageImpl<>(tasks, pageable, tasks.size());
+    List<TaskView> tasks = List.of(view(1L), view(2L));
+    Page<TaskView> taskPage = new PageImpl<>(tasks, pageable, tasks.size());
     HttpServletRequest request = mock(HttpServletRequest.class);
-    when(taskRepository.findAll(pageable)).thenReturn(taskPage);
-    when(taskMapper.toDto(any(Task.class))).thenReturn(new TaskDTO.Response());
+    when(taskRepository.findViews(isNull(), any(Pageable.class))).thenReturn(taskPage);
+    when(taskMapper.toDto(any(TaskView.class))).thenReturn(new TaskDTO.Response());
 
     // When
     Page<TaskDTO.Response> result = taskService.getAllTasks(pageable, request);
@@ -66,40 +76,39 @@ class TaskServiceTest {
     // Then
     assertNotNull(result);
     assertEquals(2, result.getTotalElements());
-    verify(taskRepository).findAll(pageable);
-    verify(taskMapper, times(2)).toDto(any(Task.class));
+    verify(taskRepository).findViews(isNull(), any(Pageable.class));
+    verify(taskMapper, times(2)).toDto(any(TaskView.class));
   }
 
   @Test
-  void getAllTasks_whenStatusIsProvided_returnFilteredTasks() {
+  void searchTasks_whenStatusIsProvided_returnFilteredTasks() {
     // Given
-    TaskStatus status = TaskStatus.TO_DO;
     Pageable pageable = PageRequest.of(0, 10);
-    HttpServletRequest request = mock(HttpServletRequest.class);
-    List<Task> tasks = List.of(new Task());
-    Page<Task> taskPage = new PageImpl<>(tasks, pageable, tasks.size());
+    List<TaskView> tasks = List.of(view(1L));
+    Page<TaskView> taskPage = new PageImpl<>(tasks, pageable, tasks.size());
 
-    when(taskRepository.findByStatus(status, pageable)).thenReturn(taskPage);
-    when(taskMapper.toDto(any(Task.class))).thenReturn(new TaskDTO.Response());
+    when(taskRepository.findViews(any(), any(Pageable.class))).thenReturn(taskPage);
+    when(taskMapper.toDto(any(TaskView.class))).thenReturn(new TaskDTO.Response());
 
     // When
-    Page<TaskDTO.Response> result = taskService.getAllTasks(pageable, request);
+    Page<TaskDTO.Response> result =
+        taskService.searchTasks(null, TaskStatus.TO_DO, null, null, pageable);
 
     // Then
     assertNotNull(result);
     assertEquals(1, result.getTotalElements());
-    verify(taskRepository).findByStatus(status, pageable);
-    verify(taskMapper).toDto(any(Task.class));
+    verify(taskRepository).findViews(any(), any(Pageable.class));
+    verify(taskMapper).toDto(any(TaskView.class));
   }
 
   @Test
   void getTaskById_whenTaskExists_returnTask() {
     // Given
     Long taskId = 1L;
-    Task task = new Task();
+    TaskView task = view(taskId);
     TaskDTO.Response expectedResponse = new TaskDTO.Response();
 
-    when(taskRepository.findById(taskId)).thenReturn(Optional.of(task));
+    when(taskRepository.findViewById(taskId)).thenReturn(Optional.of(task));
     when(taskMapper.toDto(task)).thenReturn(expectedResponse);
 
     // When
@@ -108,7 +117,7 @@ class TaskServiceTest {
     // Then
     assertNotNull(result);
     assertEquals(expectedResponse, result);
-    verify(taskRepository).findById(taskId);
+    verify(taskRepository).findViewById(taskId);
     verify(taskMapper).toDto(task);
   }
 
@@ -116,11 +125,11 @@ class TaskServiceTest {
   void getTaskById_whenTaskDoesNotExist_throwResourceNotFoundException() {
     // Given
     Long taskId = 1L;
-    when(taskRepository.findById(taskId)).thenReturn(Optional.empty());
+    when(taskRepository.findViewById(taskId)).thenReturn(Optional.empty());
 
     // When & Then
     assertThrows(ResourceNotFoundException.class, () -> taskService.getTaskById(taskId));
-    verify(taskRepository).findById(taskId);
+    verify(taskRepository).findViewById(taskId);
   }
 
   @Test
@@ -154,22 +163,45 @@ class TaskServiceTest {
     verify(webSocketService).notifyTaskCreated(expectedResponse);
   }
 
+  @Test
+  void createTask_whenPrincipalFromToken_doNotLoadUser() {
+    // Given
+    TaskDTO.Request request = new TaskDTO.Request();
+    request.setTitle("Test Task");
+
+    Task createdTask = new Task();
+    TaskDTO.Response expectedResponse = new TaskDTO.Response();
+    User tokenUser = User.builder().id(7L).username("testuser").build();
+
+    when(authentication.getPrincipal()).thenReturn(new JwtPrincipal(7L, "testuser"));
+    when(securityContext.getAuthentication()).thenReturn(authentication);
+    SecurityContextHolder.setContext(securityContext);
+    when(taskMapper.toEntity(request, tokenUser)).thenReturn(createdTask);
+    when(taskRepository.save(createdTask)).thenReturn(createdTask);
+    when(taskMapper.toDto(createdTask)).thenReturn(expectedResponse);
+
+    // When
+    TaskDTO.Response result = taskService.createTask(request);
+
+    // Then
+    assertEquals(expectedResponse, result);
+    verifyNoInteractions(userRepository);
+  }
+
   @Test
   void updateTask_whenTaskExists_updateAndReturnTask() {
     // Given
     Long taskId = 1L;
-    Task existingTask = new Task();
 
     TaskDTO.Request request = new TaskDTO.Request();
     request.setTitle("Updated Task");
 
-    Task updatedTask = new Task();
+    TaskView updated = view(taskId);
     TaskDTO.Response expectedResponse = new TaskDTO.Response();
 
-    when(taskRepository.findById(taskId)).thenReturn(Optional.of(existingTask));
-    doNothing().when(taskMapper).updateEntityFromDto(request, existingTask);
-    when(taskRepository.save(existingTask)).thenReturn(updatedTask);
-    when(taskMapper.toDto(updatedTask)).thenReturn(expectedResponse);
+    when(taskRepository.updateIfMatches(eq(taskId), isNull(), isNull(), any(TaskChanges.class)))
+        .thenReturn(Optional.of(new TaskUpdate(view(taskId), updated)));
+    when(taskMapper.toDto(updated)).thenReturn(expectedResponse);
 
     // When
     TaskDTO.Response result = taskService.updateTask(taskId, request);
@@ -177,27 +209,32 @@ class TaskServiceTest {
     // Then
     assertNotNull(result);
     assertEquals(expectedResponse, result);
-    verify(taskRepository).save(existingTask);
-    verify(webSocketService).notifyTaskUpdated(expectedResponse);
+    verify(taskRepository, never()).findById(any());
+    verify(taskRepository, never()).save(any());
+    verify(webSocketService).notifyTaskUpdated(expectedResponse, expectedResponse);
   }
 
   @Test
   void patchTask_whenTaskExists_partialUpdateAndReturnTask() {
     // Given
     Long taskId = 1L;
-    Task existingTask = new Task();
 
     Map<String, Object> updates =
         Map.of(
             "title", "Patched Title",
-            "status", "IN_PROGRESS");
+            "status", "IN_PROGRESS",
+            "version", 3);
 
-    Task updatedTask = new Task();
+    TaskView updated = view(taskId);
     TaskDTO.Response expectedResponse = new TaskDTO.Response();
 
-    when(taskRepository.findById(taskId)).thenReturn(Optional.of(existingTask));
-    when(taskRepository.save(existingTask)).thenReturn(updatedTask);
-    when(taskMapper.toDto(updatedTask)).thenReturn(expectedResponse);
+    when(taskRepository.updateIfMatches(
+            eq(taskId),
+            eq(3L),
+            eq(Set.of(TaskStatus.TO_DO, TaskStatus.IN_PROGRESS, TaskStatus.DONE)),
+            any(TaskChanges.class)))
+        .thenReturn(Optional.of(new TaskUpdate(view(taskId), updated)));
+    when(taskMapper.toDto(updated)).thenReturn(expectedResponse);
 
     // When
     TaskDTO.Response result = taskService.patchTask(taskId, updates);
@@ -205,8 +242,56 @@ class TaskServiceTest {
     // Then
     assertNotNull(result);
     assertEquals(expectedResponse, result);
-    verify(taskRepository).save(existingTask);
-    verify(webSocketService).notifyTaskUpdated(expectedResponse);
+    verify(taskRepository, never()).save(any());
+    verify(webSocketService).notifyTaskUpdated(expectedResponse, expectedResponse);
+  }
+
+  @Test
+  void patchTask_whenOnlyDescriptionChanges_notifyDescriptionChange() {
+    // Given
+    Long taskId = 1L;
+    TaskView before = view(taskId, "Old text", 3L);
+    TaskView after = view(taskId, "New text", 4L);
+    Mapper mapper = new Mapper();
+
+    when(taskRepository.updateIfMatches(eq(taskId), isNull(), isNull(), any(TaskChanges.class)))
+        .thenReturn(Optional.of(new TaskUpdate(before, after)));
+    when(taskMapper.toDto(any(TaskView.class)))
+        .thenAnswer(invocation -> mapper.toDto(invocation.<TaskView>getArgument(0)));
+
+    // When
+    taskService.patchTask(taskId, Map.of("description", "New text"));
+
+    // Then
+    ArgumentCaptor<TaskDTO.Response> previous = ArgumentCaptor.forClass(TaskDTO.Response.class);
+    ArgumentCaptor<TaskDTO.Response> current = ArgumentCaptor.forClass(TaskDTO.Response.class);
+    verify(webSocketService).notifyTaskUpdated(previous.capture(), current.capture());
+    TaskDelta delta = TaskDelta.between(previous.getValue(), current.getValue());
+    assertEquals(3L, delta.baseVersion());
+    assertEquals(Map.of("description", "New text"), delta.changes());
+  }
+
+  @Test
+  void patchTask_whenTransitionNotAllowed_throwIllegalOperationException() {
+    // Given
+    Long taskId = 1L;
+    Task existingTask = new Task();
+    existingTask.setStatus(TaskStatus.TO_DO);
+    existingTask.setVersion(0L);
+
+    when(taskRepository.updateIfMatches(
+            eq(taskId),
+            isNull(),
+            eq(Set.of(TaskStatus.IN_PROGRESS, TaskStatus.DONE)),
+            any(TaskChanges.class)))
+        .thenReturn(Optional.empty());
+    when(taskRepository.findById(taskId)).thenReturn(Optional.of(existingTask));
+
+    // When & Then
+    assertThrows(
+        IllegalOperationException.class,
+        () -> taskService.patchTask(taskId, Map.of("status", "DONE")));
+    verify(webSocketService, never()).notifyTaskUpdated(any(), any());
   }
 
   @Test
@@ -214,20 +299,31 @@ class TaskServiceTest {
     // Given
     Long taskId = 1L;
     Task existingTask = new Task();
+    TaskDTO.Response previous = TaskDTO.Response.builder().id(taskId).build();
 
     when(taskRepository.findById(taskId)).thenReturn(Optional.of(existingTask));
+    when(taskMapper.toDto(existingTask)).thenReturn(previous);
 
     // When
     taskService.deleteTask(taskId);
 
     // Then
     verify(taskRepository).delete(existingTask);
-    verify(webSocketService).notifyTaskDeleted(taskId);
+    verify(webSocketService).notifyTaskDeleted(previous);
+  }
+
+  private static TaskView view(Long id) {
+    return view(id, null, 0L);
+  }
+
+  private static TaskView view(Long id, String description, long version) {
+    return new TaskView(
+        id, "Task " + id, description, TaskStatus.TO_DO, TaskPriority.MED, 1L, "admin", null, null,
+        null, null, version);
   }
 
   private void mockSecurityContext(String username) {
-    when(userDetails.getUsername()).thenReturn(username);
-    when(authentication.getPrincipal()).thenReturn(userDetails);
+    when(authentication.getName()).thenReturn(username);
     when(securityContext.getAuthentication()).thenReturn(authentication);
     SecurityContextHolder.setContext(securityContext);
   }
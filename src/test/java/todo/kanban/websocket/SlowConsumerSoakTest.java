@@ -0,0 +1,141 @@
+package todo.kanban.websocket;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+/**
+ * Pushes a steady stream of topic messages to one fast and one stalled session through the monitor
+ * and Spring's concurrent session decorator, the way the client outbound channel does.
+ */
+class SlowConsumerSoakTest {
+
+  private static final MessageChannel CHANNEL = mock(MessageChannel.class);
+  private static final MessageHandler HANDLER = mock(MessageHandler.class);
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ExecutorService outboundThreads = Executors.newFixedThreadPool(4);
+
+  @AfterEach
+  void tearDown() {
+    outboundThreads.shutdownNow();
+  }
+
+  @Test
+  void dropPolicyKeepsFastSessionsFlowingAndBoundsTheBacklog() throws Exception {
+    WebSocketSessionMonitor monitor =
+        new WebSocketSessionMonitor(SlowConsumerPolicy.DROP, Duration.ofMillis(50), meterRegistry);
+    AtomicInteger fastFrames = new AtomicInteger();
+    AtomicInteger slowFrames = new AtomicInteger();
+    Map<String, WebSocketSession> sessions =
+        Map.of(
+            "fast", connect(monitor, "fast", fastFrames, 0),
+            "slow", connect(monitor, "slow", slowFrames, 300));
+
+    int rounds = 300;
+    int maxBacklog = 0;
+    for (int i = 0; i < rounds; i++) {
+      for (Map.Entry<String, WebSocketSession> session : sessions.entrySet()) {
+        Message<?> message = monitor.preSend(topicMessage(session.getKey()), CHANNEL);
+        if (message != null) {
+          outboundThreads.execute(() -> deliver(monitor, session.getValue(), message));
+        }
+      }
+      double backlog = meterRegistry.get("kanban.websocket.session.backlog.max").gauge().value();
+      maxBacklog = Math.max(maxBacklog, (int) backlog);
+      Thread.sleep(5);
+    }
+    outboundThreads.shutdown();
+    outboundThreads.awaitTermination(10, TimeUnit.SECONDS);
+
+    assertEquals(rounds, fastFrames.get());
+    assertTrue(slowFrames.get() < rounds / 10, "slow session got " + slowFrames.get());
+    double dropped = meterRegistry.get("kanban.websocket.frames.dropped").counter().count();
+    assertTrue(dropped > rounds / 2.0, "dropped " + dropped);
+    // frames reach the slow session's buffer only until it counts as slow
+    assertTrue(maxBacklog < 20, "backlog reached " + maxBacklog);
+  }
+
+  @Test
+  void terminatePolicyNeverDropsAndCountsClosedSessions() throws Exception {
+    WebSocketSessionMonitor monitor =
+        new WebSocketSessionMonitor(
+            SlowConsumerPolicy.TERMINATE, Duration.ofMillis(50), meterRegistry);
+    WebSocketHandler handler = monitor.decorate(mock(WebSocketHandler.class));
+    WebSocketSession session = rawSession("slow", new AtomicInteger(), 300);
+    handler.afterConnectionEstablished(session);
+
+    assertNotNull(monitor.preSend(topicMessage("slow"), CHANNEL));
+    handler.afterConnectionClosed(session, CloseStatus.SESSION_NOT_RELIABLE);
+
+    assertEquals(0, meterRegistry.get("kanban.websocket.sessions").gauge().value());
+    assertEquals(1, meterRegistry.get("kanban.websocket.sessions.terminated").counter().count());
+  }
+
+  private static WebSocketSession connect(
+      WebSocketSessionMonitor monitor, String id, AtomicInteger frames, long sendMillis)
+      throws Exception {
+    WebSocketHandler delegate = mock(WebSocketHandler.class);
+    monitor.decorate(delegate).afterConnectionEstablished(rawSession(id, frames, sendMillis));
+    ArgumentCaptor<WebSocketSession> timed = ArgumentCaptor.forClass(WebSocketSession.class);
+    verify(delegate).afterConnectionEstablished(timed.capture());
+    // what SubProtocolWebSocketHandler wraps every session in
+    return new ConcurrentWebSocketSessionDecorator(timed.getValue(), 10_000, 512 * 1024);
+  }
+
+  private static WebSocketSession rawSession(String id, AtomicInteger frames, long sendMillis)
+      throws Exception {
+    WebSocketSession session = mock(WebSocketSession.class);
+    when(session.getId()).thenReturn(id);
+    when(session.isOpen()).thenReturn(true);
+    doAnswer(
+            invocation -> {
+              Thread.sleep(sendMillis);
+              frames.incrementAndGet();
+              return null;
+            })
+        .when(session)
+        .sendMessage(any());
+    return session;
+  }
+
+  private static void deliver(
+      WebSocketSessionMonitor monitor, WebSocketSession session, Message<?> message) {
+    Exception failure = null;
+    try {
+      session.sendMessage(new TextMessage("MESSAGE"));
+    } catch (Exception e) {
+      failure = e;
+    }
+    monitor.afterMessageHandled(message, CHANNEL, HANDLER, failure);
+  }
+
+  private static Message<byte[]> topicMessage(String sessionId) {
+    SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    headers.setSessionId(sessionId);
+    headers.setDestination(TaskTopics.ALL);
+    return MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+  }
+}
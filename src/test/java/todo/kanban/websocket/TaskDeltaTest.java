@@ -0,0 +1,73 @@
+package todo.kanban.websocket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import todo.kanban.dto.TaskDTO;
+import todo.kanban.model.TaskPriority;
+import todo.kanban.model.TaskStatus;
+
+@JsonTest
+class TaskDeltaTest {
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  void carryOnlyChangedFields() {
+    TaskDTO.Response before = task(TaskStatus.TO_DO, "bob", 3L);
+    TaskDTO.Response after = task(TaskStatus.IN_PROGRESS, "bob", 4L);
+
+    TaskDelta delta = TaskDelta.between(before, after);
+
+    assertEquals(7L, delta.id());
+    assertEquals(3L, delta.baseVersion());
+    assertEquals(4L, delta.version());
+    assertEquals(Map.of("status", TaskStatus.IN_PROGRESS), delta.changes());
+  }
+
+  @Test
+  void keepClearedFieldsAsNull() {
+    TaskDelta delta =
+        TaskDelta.between(task(TaskStatus.TO_DO, "bob", 3L), task(TaskStatus.TO_DO, null, 4L));
+
+    assertTrue(delta.changes().containsKey("assignedToUsername"));
+    assertNull(delta.changes().get("assignedToUsername"));
+  }
+
+  @Test
+  void serializeClearedFieldsAsNull() throws Exception {
+    TaskDelta delta =
+        TaskDelta.between(task(TaskStatus.TO_DO, "bob", 3L), task(TaskStatus.TO_DO, null, 4L));
+
+    // the application's mapper leaves nulls out everywhere else
+    JsonNode changes = objectMapper.readTree(objectMapper.writeValueAsString(delta)).get("changes");
+
+    assertTrue(changes.has("assignedToUsername"));
+    assertTrue(changes.get("assignedToUsername").isNull());
+  }
+
+  @Test
+  void sendEveryFieldWithoutEarlierState() {
+    TaskDelta delta = TaskDelta.between(null, task(TaskStatus.DONE, "bob", 4L));
+
+    assertNull(delta.baseVersion());
+    assertEquals("Write docs", delta.changes().get("title"));
+    assertEquals(TaskStatus.DONE, delta.changes().get("status"));
+  }
+
+  private static TaskDTO.Response task(TaskStatus status, String assignee, Long version) {
+    return TaskDTO.Response.builder()
+        .id(7L)
+        .title("Write docs")
+        .status(status)
+        .priority(TaskPriority.MED)
+        .assignedToUsername(assignee)
+        .version(version)
+        .build();
+  }
+}
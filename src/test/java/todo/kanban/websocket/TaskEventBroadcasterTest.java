@@ -0,0 +1,181 @@
+package todo.kanban.websocket;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import todo.kanban.dto.TaskDTO;
+import todo.kanban.model.TaskStatus;
+
+class TaskEventBroadcasterTest {
+
+  private SimpMessagingTemplate messagingTemplate;
+  private TaskEventBroadcaster broadcaster;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    messagingTemplate = mock(SimpMessagingTemplate.class);
+    broadcaster = broadcaster(mock(ObjectProvider.class), false);
+  }
+
+  @AfterEach
+  void tearDown() {
+    broadcaster.shutdown();
+  }
+
+  @Test
+  void coalesceChangesToTheSameTask() {
+    broadcaster.publish(List.of(TaskEvent.created(task(1L, "Draft"))));
+    broadcaster.publish(List.of(TaskEvent.updated(task(1L, "Draft"), task(1L, "Final"))));
+    broadcaster.publish(List.of(TaskEvent.created(task(2L, "Gone")), TaskEvent.deleted(task(2L, "Gone"))));
+
+    WebSocketMessage message = awaitMessage();
+
+    assertEquals(WebSocketMessageType.CREATED, message.getType());
+    assertEquals("Final", ((TaskDTO.Response) message.getPayload()).getTitle());
+  }
+
+  @Test
+  void sendSeveralTasksAsOneBatch() {
+    broadcaster.publish(List.of(TaskEvent.updated(task(1L, "One"), task(1L, "One"))));
+    broadcaster.publish(
+        List.of(
+            TaskEvent.updated(task(3L, "3"), task(3L, "Three")),
+            TaskEvent.deleted(task(4L, "Four"))));
+
+    WebSocketMessage message = awaitMessage();
+
+    assertEquals(WebSocketMessageType.BATCH, message.getType());
+    TaskBatchPayload batch = (TaskBatchPayload) message.getPayload();
+    assertEquals(2, batch.updated().size());
+    assertEquals(List.of(4L), batch.deleted());
+    assertTrue(batch.created().isEmpty());
+  }
+
+  @Test
+  void publishOnlyToTopicsOfTheTask() {
+    TaskDTO.Response before =
+        TaskDTO.Response.builder()
+            .id(5L)
+            .status(TaskStatus.TO_DO)
+            .createdByUsername("alice")
+            .assignedToUsername("bob")
+            .build();
+    TaskDTO.Response after =
+        TaskDTO.Response.builder()
+            .id(5L)
+            .status(TaskStatus.IN_PROGRESS)
+            .createdByUsername("alice")
+            .assignedToUsername("carol")
+            .build();
+
+    broadcaster.publish(List.of(TaskEvent.updated(before, after)));
+
+    awaitMessage();
+    for (String destination :
+        List.of(
+            TaskTopics.status(TaskStatus.TO_DO),
+            TaskTopics.status(TaskStatus.IN_PROGRESS),
+            TaskTopics.user("alice"),
+            TaskTopics.user("bob"),
+            TaskTopics.user("carol"))) {
+      verify(messagingTemplate).convertAndSend(eq(destination), any(Object.class));
+    }
+    verify(messagingTemplate, never())
+        .convertAndSend(eq(TaskTopics.status(TaskStatus.DONE)), any(Object.class));
+    verify(messagingTemplate, never()).convertAndSend(eq(TaskTopics.ALL), any(Object.class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void publishToTheFirehoseOnlyWhenEnabled() {
+    broadcaster.shutdown();
+    broadcaster = broadcaster(mock(ObjectProvider.class), true);
+
+    broadcaster.publish(List.of(TaskEvent.created(task(1L, "Everyone sees this"))));
+
+    awaitMessage();
+    verify(messagingTemplate, timeout(2000)).convertAndSend(eq(TaskTopics.ALL), any(Object.class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void relayOwnEventsOnlyAndDropDuplicates() {
+    TaskEventRelay relay = mock(TaskEventRelay.class);
+    ObjectProvider<TaskEventRelay> relayProvider = mock(ObjectProvider.class);
+    doAnswer(
+            invocation -> {
+              ((Consumer<TaskEventRelay>) invocation.getArgument(0)).accept(relay);
+              return null;
+            })
+        .when(relayProvider)
+        .ifAvailable(any());
+    broadcaster.shutdown();
+    broadcaster = broadcaster(relayProvider, false);
+    broadcaster.init();
+    ArgumentCaptor<Consumer<List<TaskEvent>>> fromPeers =
+        ArgumentCaptor.forClass(Consumer.class);
+    verify(relay).subscribe(fromPeers.capture());
+
+    TaskDTO.Response own =
+        TaskDTO.Response.builder().id(1L).title("Own").status(TaskStatus.TO_DO).version(0L).build();
+    broadcaster.publish(List.of(TaskEvent.created(own)));
+    // the outbox relay sending the same event again
+    broadcaster.publish(List.of(TaskEvent.created(own)));
+    fromPeers
+        .getValue()
+        .accept(
+            List.of(
+                TaskEvent.created(
+                    TaskDTO.Response.builder()
+                        .id(2L)
+                        .title("Peer")
+                        .status(TaskStatus.TO_DO)
+                        .version(0L)
+                        .build())));
+
+    WebSocketMessage message = awaitMessage();
+    assertEquals(2, ((TaskBatchPayload) message.getPayload()).created().size());
+    verify(relay).publish(List.of(TaskEvent.created(own)));
+  }
+
+  @SuppressWarnings("unchecked")
+  private TaskEventBroadcaster broadcaster(
+      ObjectProvider<TaskEventRelay> relayProvider, boolean legacyFirehose) {
+    return new TaskEventBroadcaster(
+        messagingTemplate,
+        mock(ObjectProvider.class),
+        relayProvider,
+        new TaskEventLog(100),
+        new TaskEventStream(16, new SimpleMeterRegistry()),
+        Duration.ofMillis(50),
+        legacyFirehose,
+        new SimpleMeterRegistry());
+  }
+
+  /** The one message sent to the column all tasks of these tests are in */
+  private WebSocketMessage awaitMessage() {
+    String column = TaskTopics.status(TaskStatus.TO_DO);
+    ArgumentCaptor<WebSocketMessage> captor = ArgumentCaptor.forClass(WebSocketMessage.class);
+    verify(messagingTemplate, timeout(2000)).convertAndSend(eq(column), captor.capture());
+    // nothing else follows: the window went out as a single message
+    verify(messagingTemplate, after(200).times(1)).convertAndSend(eq(column), any(Object.class));
+    return captor.getValue();
+  }
+
+  private static TaskDTO.Response task(Long id, String title) {
+    return TaskDTO.Response.builder().id(id).title(title).status(TaskStatus.TO_DO).build();
+  }
+}
@@ -0,0 +1,88 @@
+package todo.kanban.websocket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TaskEventLogTest {
+
+  private static final String COLUMN = "/topic/tasks/status/DONE";
+
+  @Test
+  void numberEachDestinationWithoutGaps() {
+    TaskEventLog log = new TaskEventLog(4);
+    WebSocketMessage first = message();
+    WebSocketMessage other = message();
+    WebSocketMessage second = message();
+
+    log.append(COLUMN, first);
+    log.append(TaskTopics.ALL, other);
+    log.append(COLUMN, second);
+
+    assertEquals(1L, first.getSeq());
+    assertEquals(1L, other.getSeq());
+    assertEquals(2L, second.getSeq());
+    assertEquals(2L, log.lastSeq(COLUMN));
+    assertEquals(0L, log.lastSeq("/topic/users/7"));
+  }
+
+  @Test
+  void replayMissedMessagesOfTheDestination() {
+    TaskEventLog log = new TaskEventLog(4);
+    WebSocketMessage seen = message();
+    WebSocketMessage missed = message();
+    log.append(COLUMN, seen);
+    log.append(TaskTopics.ALL, message());
+    log.append(COLUMN, missed);
+
+    assertEquals(List.of(missed), log.since(COLUMN, log.epoch(), seen.getSeq()).orElseThrow());
+    assertEquals(List.of(), log.since(COLUMN, log.epoch(), missed.getSeq()).orElseThrow());
+  }
+
+  @Test
+  void askForResyncWhenGapIsNoLongerBuffered() {
+    TaskEventLog log = new TaskEventLog(2);
+    WebSocketMessage seen = message();
+    log.append(COLUMN, seen);
+    for (int i = 0; i < 3; i++) {
+      log.append(COLUMN, message());
+    }
+
+    assertTrue(log.since(COLUMN, log.epoch(), seen.getSeq()).isEmpty());
+    assertTrue(log.since(COLUMN, log.epoch(), log.lastSeq(COLUMN) + 5).isEmpty());
+  }
+
+  @Test
+  void askForResyncWhenOtherDestinationsPushedTheGapOut() {
+    TaskEventLog log = new TaskEventLog(3);
+    WebSocketMessage seen = message();
+    log.append(COLUMN, seen);
+    log.append(COLUMN, message());
+    log.append(TaskTopics.ALL, message());
+    log.append(TaskTopics.ALL, message());
+    log.append(COLUMN, message());
+
+    // the second column message is gone, the third alone would be a partial replay
+    assertTrue(log.since(COLUMN, log.epoch(), seen.getSeq()).isEmpty());
+    assertEquals(1, log.since(COLUMN, log.epoch(), 2).orElseThrow().size());
+  }
+
+  @Test
+  void askForResyncFromAnotherEpoch() {
+    TaskEventLog log = new TaskEventLog(4);
+    TaskEventLog otherNode = new TaskEventLog(4);
+    WebSocketMessage seen = message();
+    otherNode.append(COLUMN, seen);
+    log.append(COLUMN, message());
+    log.append(COLUMN, message());
+
+    // the number lies within this log's range, the position still means nothing here
+    assertTrue(log.since(COLUMN, seen.getEpoch(), seen.getSeq()).isEmpty());
+    assertTrue(log.since(COLUMN, null, seen.getSeq()).isEmpty());
+  }
+
+  private static WebSocketMessage message() {
+    return new WebSocketMessage(WebSocketMessageType.UPDATED, null);
+  }
+}
@@ -0,0 +1,94 @@
+package todo.kanban.websocket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import todo.kanban.dto.TaskDTO;
+import todo.kanban.model.TaskStatus;
+
+class TaskEventStreamTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final TaskEventStream stream = new TaskEventStream(4, meterRegistry);
+
+  @Test
+  void deliverEventsToEverySubscriber() {
+    List<TaskEvent> events =
+        List.of(TaskEvent.created(task(1L, TaskStatus.TO_DO)), TaskEvent.deleted(task(2L, null)));
+
+    var first = stream.events().take(2).collectList().toFuture();
+    var second = stream.events().take(2).collectList().toFuture();
+    stream.emit(events);
+
+    assertEquals(events, first.join());
+    assertEquals(events, second.join());
+  }
+
+  @Test
+  void dropOldestEventsForSubscriberThatFallsBehind() {
+    var received =
+        stream
+            .events()
+            .limitRate(1)
+            .delayElements(Duration.ofMillis(50))
+            .takeUntil(event -> event.taskId() == 20L)
+            .collectList()
+            .toFuture();
+
+    for (long id = 1; id <= 20; id++) {
+      stream.emit(List.of(TaskEvent.created(task(id, TaskStatus.TO_DO))));
+    }
+
+    // the newest events survive, the ones in between are gone
+    List<TaskEvent> events = received.join();
+    assertTrue(events.size() < 20, "received " + events.size());
+    assertEquals(20L, events.get(events.size() - 1).taskId());
+    assertTrue(meterRegistry.get("kanban.graphql.subscription.dropped").counter().count() > 0);
+  }
+
+  @Test
+  void blockingSubscriberHoldsUpNeitherTheBroadcasterNorOthers() throws Exception {
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    stream
+        .events()
+        .doOnNext(
+            event -> {
+              blocked.countDown();
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            })
+        .subscribe();
+    var other =
+        stream.events().takeUntil(event -> event.taskId() == 20L).collectList().toFuture();
+
+    try {
+      // emit would not return while the first subscriber sat on the calling thread
+      assertTimeoutPreemptively(
+          Duration.ofSeconds(5),
+          () -> {
+            stream.emit(List.of(TaskEvent.created(task(1L, TaskStatus.TO_DO))));
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            for (long id = 2; id <= 20; id++) {
+              stream.emit(List.of(TaskEvent.created(task(id, TaskStatus.TO_DO))));
+            }
+          });
+      List<TaskEvent> events = other.get(5, TimeUnit.SECONDS);
+      assertEquals(20L, events.get(events.size() - 1).taskId());
+    } finally {
+      release.countDown();
+    }
+  }
+
+  private static TaskDTO.Response task(Long id, TaskStatus status) {
+    return TaskDTO.Response.builder().id(id).status(status).build();
+  }
+}
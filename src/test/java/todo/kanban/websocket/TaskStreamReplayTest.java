@@ -0,0 +1,118 @@
+package todo.kanban.websocket;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+class TaskStreamReplayTest {
+
+  private static final MessageChannel INBOUND = mock(MessageChannel.class);
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+  private final TaskEventLog eventLog = new TaskEventLog(16);
+  private final List<Long> received = new ArrayList<>();
+  private final ExecutorSubscribableChannel outbound = new ExecutorSubscribableChannel();
+  private final TaskStreamReplay replay;
+
+  @SuppressWarnings("unchecked")
+  TaskStreamReplayTest() {
+    converter.setObjectMapper(objectMapper);
+    SimpMessagingTemplate template = new SimpMessagingTemplate(mock(MessageChannel.class));
+    template.setMessageConverter(converter);
+    ObjectProvider<SimpMessagingTemplate> templateProvider = mock(ObjectProvider.class);
+    when(templateProvider.getObject()).thenReturn(template);
+    ObjectProvider<MessageChannel> outboundProvider = mock(ObjectProvider.class);
+    when(outboundProvider.getObject()).thenReturn(outbound);
+    outbound.subscribe(message -> received.add(seqOf(message)));
+    replay = new TaskStreamReplay(eventLog, templateProvider, outboundProvider, objectMapper);
+  }
+
+  @Test
+  void replayWhatWasSentBeforeTheBrokerRegisteredTheSubscription() {
+    WebSocketMessage seen = append();
+    append();
+    Message<?> subscribe = subscribe(seen.getSeq());
+    replay.preSend(subscribe, INBOUND);
+
+    // a window flushed after the SUBSCRIBE arrived but before the broker registered it
+    append();
+    replay.afterMessageHandled(subscribe, INBOUND, mock(SimpleBrokerMessageHandler.class), null);
+
+    assertEquals(List.of(2L, 3L), received);
+  }
+
+  @Test
+  void holdLiveMessagesUntilTheReplayIsOut() {
+    WebSocketMessage seen = append();
+    Message<?> subscribe = subscribe(seen.getSeq());
+    replay.preSend(subscribe, INBOUND);
+
+    WebSocketMessage live = append();
+    assertNull(replay.preSend(frame(live), outbound), "live message overtook the replay");
+    replay.afterMessageHandled(subscribe, INBOUND, mock(SimpleBrokerMessageHandler.class), null);
+
+    // sent once, by the replay, and live messages flow directly again
+    assertEquals(List.of(2L), received);
+    Message<?> next = frame(append());
+    assertSame(next, replay.preSend(next, outbound));
+  }
+
+  @Test
+  void answerUnknownPositionsWithResync() {
+    append();
+    Message<?> subscribe = subscribe(42);
+    replay.preSend(subscribe, INBOUND);
+    replay.afterMessageHandled(subscribe, INBOUND, mock(SimpleBrokerMessageHandler.class), null);
+
+    assertEquals(List.of(1L), received);
+  }
+
+  private WebSocketMessage append() {
+    WebSocketMessage message = new WebSocketMessage(WebSocketMessageType.UPDATED, null);
+    eventLog.append(TaskTopics.ALL, message);
+    return message;
+  }
+
+  private Message<?> subscribe(long fromSeq) {
+    StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+    headers.setSessionId("s1");
+    headers.setSubscriptionId("sub-0");
+    headers.setDestination(TaskTopics.ALL);
+    headers.setNativeHeader(TaskStreamReplay.FROM_SEQ_HEADER, String.valueOf(fromSeq));
+    headers.setNativeHeader(TaskStreamReplay.FROM_EPOCH_HEADER, eventLog.epoch());
+    return MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+  }
+
+  private Message<?> frame(WebSocketMessage message) {
+    SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    headers.setSessionId("s1");
+    headers.setSubscriptionId("sub-0");
+    headers.setDestination(TaskTopics.ALL);
+    return converter.toMessage(message, headers.getMessageHeaders());
+  }
+
+  private long seqOf(Message<?> message) {
+    try {
+      return objectMapper.readTree((byte[]) message.getPayload()).get("seq").asLong();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package todo.kanban.websocket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.websocket.ContainerProvider;
+import jakarta.websocket.WebSocketContainer;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import todo.kanban.KanbanApplication;
+import todo.kanban.dto.AuthDTO;
+import todo.kanban.dto.TaskDTO;
+import todo.kanban.model.TaskPriority;
+import todo.kanban.model.TaskStatus;
+
+/** Runs two application instances against one database and checks task events reach both. */
+@Testcontainers
+class WebSocketFanoutIntegrationTest {
+
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:15-alpine")
+          .withDatabaseName("kanban_test")
+          .withUsername("test")
+          .withPassword("test");
+
+  private static ConfigurableApplicationContext nodeA;
+  private static ConfigurableApplicationContext nodeB;
+  private final RestTemplate rest = new RestTemplate();
+
+  @BeforeAll
+  static void startNodes() {
+    postgres.start();
+    nodeA = startNode();
+    nodeB = startNode();
+  }
+
+  @AfterAll
+  static void stopNodes() {
+    if (nodeA != null) {
+      nodeA.close();
+    }
+    if (nodeB != null) {
+      nodeB.close();
+    }
+    postgres.stop();
+  }
+
+  @Test
+  void taskCreatedOnOneNodeReachesSubscribersOfBoth() throws Exception {
+    String token = register("fanout");
+    BlockingQueue<WebSocketMessage> onA = subscribe(nodeA, token);
+    BlockingQueue<WebSocketMessage> onB = subscribe(nodeB, token);
+
+    createTask(nodeA, token, "Created on A");
+
+    for (BlockingQueue<WebSocketMessage> received : List.of(onA, onB)) {
+      WebSocketMessage message = received.poll(10, TimeUnit.SECONDS);
+      assertNotNull(message);
+      assertEquals(WebSocketMessageType.CREATED, message.getType());
+      // each node sends the event once, however it reached the node
+      assertNull(received.poll(500, TimeUnit.MILLISECONDS));
+    }
+  }
+
+  @Test
+  void largeBatchIsSpilledAndStillDelivered() throws Exception {
+    String token = register("spill");
+    BlockingQueue<WebSocketMessage> onB = subscribe(nodeB, token);
+
+    // far more than a NOTIFY payload holds, all inside one coalescing window
+    nodeA
+        .getBean(TaskEventBroadcaster.class)
+        .publish(
+            LongStream.rangeClosed(1, 200)
+                .mapToObj(
+                    id ->
+                        TaskEvent.created(
+                            TaskDTO.Response.builder()
+                                .id(100_000 + id)
+                                .title("Spilled task " + id)
+                                .description("x".repeat(100))
+                                .status(TaskStatus.TO_DO)
+                                .build()))
+                .toList());
+
+    WebSocketMessage message = onB.poll(10, TimeUnit.SECONDS);
+    assertNotNull(message);
+    assertEquals(WebSocketMessageType.BATCH, message.getType());
+  }
+
+  private String register(String username) {
+    AuthDTO.RegisterRequest request = new AuthDTO.RegisterRequest();
+    request.setUsername(username);
+    request.setPassword("password");
+    request.setEmail(username + "@example.com");
+    return rest.postForObject(
+            baseUrl(nodeA) + "/api/auth/register", request, AuthDTO.TokenResponse.class)
+        .getToken();
+  }
+
+  private void createTask(ConfigurableApplicationContext node, String token, String title) {
+    TaskDTO.Request request = new TaskDTO.Request();
+    request.setTitle(title);
+    request.setStatus(TaskStatus.TO_DO);
+    request.setPriority(TaskPriority.MED);
+    HttpHeaders headers = new HttpHeaders();
+    headers.setBearerAuth(token);
+    rest.postForObject(
+        baseUrl(node) + "/api/tasks", new HttpEntity<>(request, headers), TaskDTO.Response.class);
+  }
+
+  private BlockingQueue<WebSocketMessage> subscribe(
+      ConfigurableApplicationContext node, String token) throws Exception {
+    // A spilled batch is one frame, far larger than the 8KB a client container buffers by default
+    WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+    container.setDefaultMaxTextMessageBufferSize(1024 * 1024);
+    SockJsClient sockJsClient =
+        new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient(container))));
+    // /ws requires a token, and SockJS sends its info request before the handshake
+    sockJsClient.setHttpHeaderNames(HttpHeaders.AUTHORIZATION);
+    WebSocketStompClient stompClient = new WebSocketStompClient(sockJsClient);
+    stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+    WebSocketHttpHeaders handshake = new WebSocketHttpHeaders();
+    handshake.setBearerAuth(token);
+
+    StompSession session =
+        stompClient
+            .connectAsync(
+                baseUrl(node).replace("http", "ws") + "/ws",
+                handshake,
+                new StompSessionHandlerAdapter() {})
+            .get(5, TimeUnit.SECONDS);
+
+    BlockingQueue<WebSocketMessage> received = new LinkedBlockingQueue<>();
+    // the column every task of these tests is created in
+    session.subscribe(
+        TaskTopics.status(TaskStatus.TO_DO),
+        new StompFrameHandler() {
+          @Override
+          public @NonNull Type getPayloadType(@NonNull StompHeaders headers) {
+            return WebSocketMessage.class;
+          }
+
+          @Override
+          public void handleFrame(@NonNull StompHeaders headers, Object payload) {
+            received.add((WebSocketMessage) payload);
+          }
+        });
+    // the subscription is registered asynchronously
+    Thread.sleep(200);
+    return received;
+  }
+
+  private static String baseUrl(ConfigurableApplicationContext node) {
+    return "http://localhost:" + node.getEnvironment().getProperty("local.server.port");
+  }
+
+  private static ConfigurableApplicationContext startNode() {
+    return new SpringApplicationBuilder(KanbanApplication.class)
+        .profiles("test")
+        .run(
+            "--server.port=0",
+            // migrated status and priority columns are enums, the entity binds them as strings
+            "--spring.datasource.url=" + postgres.getJdbcUrl() + "&stringtype=unspecified",
+            "--spring.datasource.username=" + postgres.getUsername(),
+            "--spring.datasource.password=" + postgres.getPassword(),
+            // both nodes share the schema Flyway created, Hibernate must not recreate it
+            "--spring.jpa.hibernate.ddl-auto=none",
+            "--kanban.cluster.enabled=true");
+  }
+}
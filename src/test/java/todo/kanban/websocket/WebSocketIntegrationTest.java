@@ -2,12 +2,18 @@ package todo.kanban.websocket;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,6 +24,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.context.ApplicationContextInitializer;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.lang.NonNull;
 import org.springframework.messaging.converter.MappingJackson2MessageConverter;
@@ -30,6 +37,7 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.support.TestPropertySourceUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.socket.WebSocketHttpHeaders;
 import org.springframework.web.socket.client.standard.StandardWebSocketClient;
 import org.springframework.web.socket.messaging.WebSocketStompClient;
 import org.springframework.web.socket.sockjs.client.SockJsClient;
@@ -61,9 +69,11 @@ class WebSocketIntegrationTest {
 
   @BeforeEach
   void setup() {
-    this.stompClient =
-        new WebSocketStompClient(
-            new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+    SockJsClient sockJsClient =
+        new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient())));
+    // /ws requires a token, and SockJS sends its info request before the handshake
+    sockJsClient.setHttpHeaderNames(HttpHeaders.AUTHORIZATION);
+    this.stompClient = new WebSocketStompClient(sockJsClient);
     this.stompClient.setMessageConverter(new MappingJackson2MessageConverter());
   }
 
@@ -73,14 +83,11 @@ class WebSocketIntegrationTest {
     CompletableFuture<WebSocketMessage> completableFuture = new CompletableFuture<>();
 
     // Connect to WebSocket
-    StompSession session =
-        stompClient
-            .connectAsync("ws://localhost:" + port + "/ws", new StompSessionHandlerAdapter() {})
-            .get(5, TimeUnit.SECONDS);
+    StompSession session = connect(token);
 
-    // Subscribe to the tasks topic
+    // Subscribe to the column the task is created in
     session.subscribe(
-        "/topic/tasks",
+        TaskTopics.status(TaskStatus.TO_DO),
         new StompFrameHandler() {
           @Override
           public @NonNull Type getPayloadType(@NonNull StompHeaders headers) {
@@ -115,11 +122,119 @@ class WebSocketIntegrationTest {
     session.disconnect();
   }
 
+  @Test
+  void descriptionOnlyPatchBroadcastsTheDescription() throws Exception {
+    String token = getAuthToken();
+    BlockingQueue<WebSocketMessage> received = subscribe(connect(token), TaskTopics.user("wsuser"));
+
+    Long id = createTask(token, "Described Task");
+    WebSocketMessage created = received.poll(5, TimeUnit.SECONDS);
+    assertNotNull(created);
+    assertEquals(WebSocketMessageType.CREATED, created.getType());
+
+    mockMvc
+        .perform(
+            patch("/api/tasks/" + id)
+                .header("Authorization", "Bearer " + token)
+                .contentType("application/merge-patch+json")
+                .content("{\"description\":\"Rewritten\"}"))
+        .andExpect(status().isOk());
+
+    WebSocketMessage updated = received.poll(5, TimeUnit.SECONDS);
+    assertNotNull(updated);
+    assertEquals(WebSocketMessageType.UPDATED, updated.getType());
+    Map<?, ?> changes = (Map<?, ?>) ((Map<?, ?>) updated.getPayload()).get("changes");
+    assertEquals("Rewritten", changes.get("description"));
+  }
+
+  @Test
+  void sessionsOnOtherTopicsDoNotReceiveTheTask() throws Exception {
+    String token = getAuthToken();
+    StompSession other = connect(getAuthToken("otheruser"));
+    BlockingQueue<WebSocketMessage> otherUser = subscribe(other, TaskTopics.user("otheruser"));
+    BlockingQueue<WebSocketMessage> otherColumn =
+        subscribe(other, TaskTopics.status(TaskStatus.DONE));
+    BlockingQueue<WebSocketMessage> column =
+        subscribe(connect(token), TaskTopics.status(TaskStatus.TO_DO));
+
+    createTask(token, "Not for others");
+
+    assertNotNull(column.poll(5, TimeUnit.SECONDS));
+    assertNull(otherUser.poll(500, TimeUnit.MILLISECONDS));
+    assertNull(otherColumn.poll(500, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void firehoseIsOffByDefault() throws Exception {
+    String token = getAuthToken();
+    BlockingQueue<WebSocketMessage> firehose = subscribe(connect(token), TaskTopics.ALL);
+    BlockingQueue<WebSocketMessage> column =
+        subscribe(connect(token), TaskTopics.status(TaskStatus.TO_DO));
+
+    createTask(token, "Only for its column");
+
+    assertNotNull(column.poll(5, TimeUnit.SECONDS));
+    assertNull(firehose.poll(500, TimeUnit.MILLISECONDS));
+  }
+
+  private StompSession connect(String token) throws Exception {
+    WebSocketHttpHeaders handshake = new WebSocketHttpHeaders();
+    handshake.setBearerAuth(token);
+    return stompClient
+        .connectAsync(
+            "ws://localhost:" + port + "/ws", handshake, new StompSessionHandlerAdapter() {})
+        .get(5, TimeUnit.SECONDS);
+  }
+
+  private BlockingQueue<WebSocketMessage> subscribe(StompSession session, String destination)
+      throws InterruptedException {
+    BlockingQueue<WebSocketMessage> received = new LinkedBlockingQueue<>();
+    session.subscribe(
+        destination,
+        new StompFrameHandler() {
+          @Override
+          public @NonNull Type getPayloadType(@NonNull StompHeaders headers) {
+            return WebSocketMessage.class;
+          }
+
+          @Override
+          public void handleFrame(@NonNull StompHeaders headers, Object payload) {
+            received.add((WebSocketMessage) payload);
+          }
+        });
+    // the subscription is registered asynchronously
+    Thread.sleep(200);
+    return received;
+  }
+
+  private Long createTask(String token, String title) throws Exception {
+    TaskDTO.Request request = new TaskDTO.Request();
+    request.setTitle(title);
+    request.setStatus(TaskStatus.TO_DO);
+    request.setPriority(TaskPriority.MED);
+    MvcResult result =
+        mockMvc
+            .perform(
+                post("/api/tasks")
+                    .header("Authorization", "Bearer " + token)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isCreated())
+            .andReturn();
+    return objectMapper
+        .readValue(result.getResponse().getContentAsString(), TaskDTO.Response.class)
+        .getId();
+  }
+
   private String getAuthToken() throws Exception {
+    return getAuthToken("wsuser");
+  }
+
+  private String getAuthToken(String username) throws Exception {
     AuthDTO.RegisterRequest registerRequest = new AuthDTO.RegisterRequest();
-    registerRequest.setUsername("wsuser");
+    registerRequest.setUsername(username);
     registerRequest.setPassword("password");
-    registerRequest.setEmail("ws@example.com");
+    registerRequest.setEmail(username + "@example.com");
 
     // Try to register or login
     try {
@@ -134,11 +249,15 @@ class WebSocketIntegrationTest {
       String responseContent = result.getResponse().getContentAsString();
       AuthDTO.TokenResponse response =
           objectMapper.readValue(responseContent, AuthDTO.TokenResponse.class);
+      // A second registration is answered with an error body rather than an exception
+      if (response.getToken() == null) {
+        throw new IllegalStateException(username + " is already registered");
+      }
       return response.getToken();
     } catch (Exception e) {
       // User might already exist, try login
       AuthDTO.LoginRequest loginRequest = new AuthDTO.LoginRequest();
-      loginRequest.setUsername("wsuser");
+      loginRequest.setUsername(username);
       loginRequest.setPassword("password");
 
       MvcResult result =
@@ -174,7 +293,8 @@ class WebSocketIntegrationTest {
       postgres.start();
       TestPropertySourceUtils.addInlinedPropertiesToEnvironment(
           context,
-          "spring.datasource.url=" + postgres.getJdbcUrl(),
+          // migrated status and priority columns are enums, the entity binds them as strings
+          "spring.datasource.url=" + postgres.getJdbcUrl() + "&stringtype=unspecified",
           "spring.datasource.username=" + postgres.getUsername(),
           "spring.datasource.password=" + postgres.getPassword());
     }